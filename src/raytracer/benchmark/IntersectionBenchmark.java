@@ -0,0 +1,218 @@
+package raytracer.benchmark;
+
+import raytracer.geometry.*;
+import raytracer.material.Material;
+import raytracer.material.SingleColorMaterial;
+import raytracer.math.*;
+import raytracer.texture.Color;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class benchmarks the intersection routines of the primitives. Every primitive is measured with three fixed
+ * ray sets: rays that hit it, rays that miss it and rays that graze its silhouette.
+ * <p>
+ * Usage: {@code IntersectionBenchmark [--quick] [--baseline <file>] [--save <file>] [--threshold <fraction>]}
+ * <p>
+ * With a baseline every benchmark slower than the baseline by more than the threshold (default 0.1) is reported and
+ * the exit code is 1.
+ *
+ * @author TrayRacer Team
+ */
+public class IntersectionBenchmark {
+    /**
+     * The number of rays per ray set.
+     */
+    private static final int RAYS = 1024;
+    /**
+     * The seed of the ray sets, so every run measures the same rays.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Main method running all benchmarks.
+     *
+     * @param args The options.
+     * @throws IOException If the baseline can not be read or written.
+     */
+    public static void main(final String[] args) throws IOException {
+        boolean quick = false;
+        File baselineFile = null;
+        File saveFile = null;
+        double threshold = 0.1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--quick":
+                    quick = true;
+                    break;
+                case "--baseline":
+                    baselineFile = new File(args[++i]);
+                    break;
+                case "--save":
+                    saveFile = new File(args[++i]);
+                    break;
+                case "--threshold":
+                    threshold = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    System.err.println("Usage: IntersectionBenchmark [--quick] [--baseline <file>] [--save <file>] [--threshold <fraction>]");
+                    System.exit(1);
+            }
+        }
+
+        final MicroBenchmark bench = quick ? new MicroBenchmark(2, 3, 100) : new MicroBenchmark(5, 10, 200);
+        final Material material = new SingleColorMaterial(new Color(1, 1, 1));
+        final List<Geometry> geometries = new ArrayList<>();
+        geometries.add(new Sphere(new Point3(1, 2, 3), 1.5, material));
+        geometries.add(new Triangle(new Point3(-1, 0, 0), new Point3(1, 0.2, 0), new Point3(0, 1.5, 0.5), material));
+        geometries.add(new AxisAlignedBox(new Point3(-1, -0.5, -2), new Point3(1, 0.5, 2), material));
+        geometries.add(new Torus(2, 0.5, material));
+        geometries.add(new ZAxisAlignedCone(new Point3(0, 0, 2), -2, -0.2, 1, material));
+        geometries.add(new Disc(new Point3(0, 1, 0), new Normal3(0.3, 1, 0.2), 1.5, material));
+        geometries.add(new Node(new Transform().translation(1, 0, -1).rotateY(0.4).scale(2, 1, 1),
+                new LinkedList<>(Arrays.asList(new Sphere(material))), material));
+
+        final List<MicroBenchmark.Result> results = new ArrayList<>();
+        for (Geometry geo : geometries) {
+            final String name = geo.getClass().getSimpleName() + ".hit";
+            final Ray[][] sets = raySets(geo, new Random(SEED));
+            for (int set = 0; set < sets.length; set++) {
+                final Ray[] rays = sets[set];
+                final MicroBenchmark.Result result = bench.measure(name + "/" + SET_NAMES[set], rays.length, () -> {
+                    long hits = 0;
+                    for (Ray ray : rays) {
+                        if (geo.hit(ray) != null) hits++;
+                    }
+                    return hits;
+                });
+                System.out.println(result);
+                results.add(result);
+
+                if (geo instanceof Torus) {
+                    final double[][] coefficients = quarticCoefficients((Torus) geo, rays);
+                    final MicroBenchmark.Result quartic = bench.measure("Solvers.solveQuartic/" + SET_NAMES[set],
+                            coefficients.length, () -> {
+                                long roots = 0;
+                                for (double[] q : coefficients) {
+                                    final double[] r = Solvers.solveQuartic(q[0], q[1], q[2], q[3], q[4]);
+                                    if (r != null) roots += r.length;
+                                }
+                                return roots;
+                            });
+                    System.out.println(quartic);
+                    results.add(quartic);
+                }
+            }
+        }
+
+        int regressions = 0;
+        if (baselineFile != null) {
+            System.out.println();
+            final Map<String, Double> baseline = MicroBenchmark.load(baselineFile);
+            regressions = MicroBenchmark.compare(results, baseline, threshold);
+            System.out.println(regressions + " regression(s) above " + Math.round(threshold * 100) + "%");
+        }
+        if (saveFile != null) {
+            MicroBenchmark.save(results, saveFile, "IntersectionBenchmark, " + Runtime.getRuntime().availableProcessors()
+                    + " cores, java " + System.getProperty("java.version") + ", ns per ray");
+        }
+        if (regressions > 0) System.exit(1);
+    }
+
+    /**
+     * The names of the ray sets in the order of raySets.
+     */
+    private static final String[] SET_NAMES = {"hit", "miss", "grazing"};
+
+    /**
+     * This method creates the ray sets for a geometry. All rays start outside the bounds of the geometry and point
+     * towards them. Grazing rays are found by bisecting between a hitting and a missing direction from the same
+     * origin, so they pass the silhouette within a tiny angle, alternately just inside and just outside.
+     *
+     * @param geo    The geometry. Must have finite bounds.
+     * @param random The random numbers.
+     * @return The rays that hit, the rays that miss and the grazing rays.
+     */
+    private static Ray[][] raySets(final Geometry geo, final Random random) {
+        final BoundingBox box = geo.bounds();
+        final Point3 center = new Point3((box.lbf.x + box.run.x) / 2, (box.lbf.y + box.run.y) / 2, (box.lbf.z + box.run.z) / 2);
+        final double radius = box.run.sub(box.lbf).magnitude / 2;
+
+        final List<Ray> hits = new ArrayList<>();
+        final List<Ray> misses = new ArrayList<>();
+        final List<Ray> grazing = new ArrayList<>();
+        while (hits.size() < RAYS || misses.size() < RAYS || grazing.size() < RAYS) {
+            final Point3 o = center.add(randomDirection(random).mul(3 * radius));
+            // targets spread over twice the bounds, so roughly half of the rays miss
+            final Point3 target = new Point3(center.x + (random.nextDouble() - 0.5) * 2 * (box.run.x - box.lbf.x),
+                    center.y + (random.nextDouble() - 0.5) * 2 * (box.run.y - box.lbf.y),
+                    center.z + (random.nextDouble() - 0.5) * 2 * (box.run.z - box.lbf.z));
+            final Ray ray = new Ray(o, target.sub(o).normalized());
+            final boolean hit = geo.hit(ray) != null;
+            if (hit && hits.size() < RAYS) hits.add(ray);
+            if (!hit && misses.size() < RAYS) misses.add(ray);
+            if (grazing.size() >= RAYS) continue;
+
+            // bisect towards the other outcome on the way to the center
+            Vector3 in = hit ? ray.d : center.sub(o).normalized();
+            Vector3 out = hit ? null : ray.d;
+            if (!hit && geo.hit(new Ray(o, in)) == null) continue;
+            if (hit) {
+                out = in.add(randomDirection(random).mul(2)).normalized();
+                if (geo.hit(new Ray(o, out)) != null) continue;
+            }
+            for (int i = 0; i < 40; i++) {
+                final Vector3 middle = in.add(out).normalized();
+                if (geo.hit(new Ray(o, middle)) != null) in = middle;
+                else out = middle;
+            }
+            grazing.add(new Ray(o, grazing.size() % 2 == 0 ? in : out));
+        }
+        return new Ray[][]{hits.toArray(new Ray[RAYS]), misses.toArray(new Ray[RAYS]), grazing.toArray(new Ray[RAYS])};
+    }
+
+    /**
+     * This method calculates the coefficients of the quartic equation the torus solves for each ray, in the same
+     * way as Torus.hit.
+     *
+     * @param torus The torus.
+     * @param rays  The rays.
+     * @return The 5 coefficients for each ray.
+     */
+    private static double[][] quarticCoefficients(final Torus torus, final Ray[] rays) {
+        final double[][] coefficients = new double[rays.length][];
+        final double radius = torus.radius;
+        final double diameter = torus.diameter;
+        for (int i = 0; i < rays.length; i++) {
+            final Ray r = rays[i];
+            double a = 4 * Math.pow(radius, 2) * (Math.pow(r.d.x, 2) + Math.pow(r.d.y, 2));
+            double b = 8 * Math.pow(radius, 2) * (r.o.x * r.d.x + r.o.y * r.d.y);
+            double c = 4 * Math.pow(radius, 2) * (Math.pow(r.o.x, 2) + Math.pow(r.o.y, 2));
+            double d = Math.pow(r.d.magnitude, 2);
+            double e = 2 * (r.o.x * r.d.x + r.o.y * r.d.y + r.o.z * r.d.z);
+            double f = Math.pow(r.o.x, 2) + Math.pow(r.o.y, 2) + Math.pow(r.o.z, 2) + Math.pow(radius, 2) - Math.pow(diameter, 2);
+            coefficients[i] = new double[]{Math.pow(d, 2), 2 * d * e, 2 * d * f + Math.pow(e, 2) - a, 2 * e * f - b, Math.pow(f, 2) - c};
+        }
+        return coefficients;
+    }
+
+    /**
+     * This method creates a random direction, uniformly distributed on the unit sphere.
+     *
+     * @param random The random numbers.
+     * @return The direction.
+     */
+    private static Vector3 randomDirection(final Random random) {
+        final double z = random.nextDouble() * 2 - 1;
+        final double phi = random.nextDouble() * 2 * Math.PI;
+        final double s = Math.sqrt(1 - z * z);
+        return new Vector3(s * Math.cos(phi), s * Math.sin(phi), z);
+    }
+}
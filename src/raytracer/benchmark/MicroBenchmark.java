@@ -0,0 +1,223 @@
+package raytracer.benchmark;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * This class measures the time of small operations. Every operation is warmed up first, so the JIT has compiled it,
+ * and then timed in several iterations of a fixed duration. The results can be saved as a baseline and compared
+ * against one to detect regressions.
+ *
+ * @author TrayRacer Team
+ */
+public class MicroBenchmark {
+    /**
+     * This interface is implemented by the measured operation.
+     */
+    public interface Operation {
+        /**
+         * This method runs the operation once.
+         *
+         * @return A value depending on the work done, so the JIT can not remove it.
+         */
+        long run();
+    }
+
+    /**
+     * This class holds the result of a single benchmark.
+     */
+    public static class Result {
+        /**
+         * The name of the benchmark.
+         */
+        public final String name;
+        /**
+         * The mean time of an operation in nanoseconds.
+         */
+        public final double nsPerOp;
+        /**
+         * The standard deviation of the iterations in nanoseconds.
+         */
+        public final double error;
+
+        /**
+         * This constructor creates a new result.
+         *
+         * @param name    The name of the benchmark.
+         * @param nsPerOp The mean time of an operation in nanoseconds.
+         * @param error   The standard deviation of the iterations in nanoseconds.
+         */
+        public Result(final String name, final double nsPerOp, final double error) {
+            if (name == null) throw new IllegalArgumentException("Name must not be null.");
+            this.name = name;
+            this.nsPerOp = nsPerOp;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %10.2f ns/op  +- %6.2f", name, nsPerOp, error);
+        }
+    }
+
+    /**
+     * Collects the values of all operations, so no work is dead code.
+     */
+    private static volatile long sink;
+
+    /**
+     * The number of warmup iterations.
+     */
+    public final int warmups;
+    /**
+     * The number of measured iterations.
+     */
+    public final int iterations;
+    /**
+     * The duration of an iteration in nanoseconds.
+     */
+    public final long iterationNanos;
+
+    /**
+     * This constructor creates a benchmark runner.
+     *
+     * @param warmups      The number of warmup iterations. Must not be negative.
+     * @param iterations   The number of measured iterations. Must be larger than 0.
+     * @param iterationMs  The duration of an iteration in milliseconds. Must be larger than 0.
+     */
+    public MicroBenchmark(final int warmups, final int iterations, final int iterationMs) {
+        if (warmups < 0 || iterations <= 0 || iterationMs <= 0)
+            throw new IllegalArgumentException("Iterations and duration must be positive.");
+        this.warmups = warmups;
+        this.iterations = iterations;
+        this.iterationNanos = iterationMs * 1000000L;
+    }
+
+    /**
+     * This method measures the given operation.
+     *
+     * @param name       The name of the benchmark.
+     * @param opsPerCall The number of operations done by a single call, e.g. the number of rays in a ray set.
+     * @param operation  The operation.
+     * @return The result.
+     */
+    public Result measure(final String name, final int opsPerCall, final Operation operation) {
+        if (name == null || operation == null) throw new IllegalArgumentException("Parameters must not be null.");
+        if (opsPerCall <= 0) throw new IllegalArgumentException("Operations per call must be larger than 0.");
+        for (int i = 0; i < warmups; i++) {
+            iteration(opsPerCall, operation);
+        }
+        final double[] times = new double[iterations];
+        double sum = 0;
+        for (int i = 0; i < iterations; i++) {
+            times[i] = iteration(opsPerCall, operation);
+            sum += times[i];
+        }
+        final double mean = sum / iterations;
+        double variance = 0;
+        for (double time : times) {
+            variance += (time - mean) * (time - mean);
+        }
+        final double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+        return new Result(name, mean, error);
+    }
+
+    /**
+     * This method runs the operation for the duration of an iteration.
+     *
+     * @return The mean time of an operation in nanoseconds.
+     */
+    private double iteration(final int opsPerCall, final Operation operation) {
+        long value = 0;
+        long calls = 0;
+        final long start = System.nanoTime();
+        long now;
+        do {
+            value += operation.run();
+            calls++;
+            now = System.nanoTime();
+        } while (now - start < iterationNanos);
+        sink += value;
+        return (double) (now - start) / (calls * opsPerCall);
+    }
+
+    /**
+     * This method loads a baseline written by save.
+     *
+     * @param file The file.
+     * @return The mean time of an operation in nanoseconds by benchmark name.
+     * @throws IOException If the file can not be read.
+     */
+    public static Map<String, Double> load(final File file) throws IOException {
+        if (file == null) throw new IllegalArgumentException("File must not be null.");
+        final Properties properties = new Properties();
+        try (Reader reader = new FileReader(file)) {
+            properties.load(reader);
+        }
+        final Map<String, Double> baseline = new TreeMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            baseline.put(name, Double.parseDouble(properties.getProperty(name)));
+        }
+        return baseline;
+    }
+
+    /**
+     * This method saves the results as a baseline.
+     *
+     * @param results The results.
+     * @param file    The file.
+     * @param comment The comment written at the top of the file, e.g. the machine the results were measured on.
+     * @throws IOException If the file can not be written.
+     */
+    public static void save(final List<Result> results, final File file, final String comment) throws IOException {
+        if (results == null || file == null) throw new IllegalArgumentException("Parameters must not be null.");
+        // written by hand instead of Properties.store, so the entries stay sorted and baselines can be diffed
+        final Map<String, Double> sorted = new TreeMap<>();
+        for (Result result : results) {
+            sorted.put(result.name, result.nsPerOp);
+        }
+        try (Writer writer = new FileWriter(file)) {
+            if (comment != null) writer.write("# " + comment + System.lineSeparator());
+            for (Map.Entry<String, Double> entry : sorted.entrySet()) {
+                writer.write(entry.getKey() + "=" + String.format(Locale.ROOT, "%.2f", entry.getValue())
+                        + System.lineSeparator());
+            }
+        }
+    }
+
+    /**
+     * This method prints the results next to the baseline and reports every benchmark that is slower than the
+     * baseline by more than the threshold.
+     *
+     * @param results   The results.
+     * @param baseline  The baseline by benchmark name.
+     * @param threshold The allowed slowdown, e.g. 0.1 for 10 percent.
+     * @return The number of regressions.
+     */
+    public static int compare(final List<Result> results, final Map<String, Double> baseline, final double threshold) {
+        if (results == null || baseline == null) throw new IllegalArgumentException("Parameters must not be null.");
+        int regressions = 0;
+        for (Result result : results) {
+            final Double before = baseline.get(result.name);
+            if (before == null) {
+                System.out.println(result + "   (no baseline)");
+                continue;
+            }
+            final double change = result.nsPerOp / before - 1;
+            final boolean regression = change > threshold;
+            if (regression) regressions++;
+            System.out.println(result + String.format("   baseline %10.2f  %+6.1f%%%s", before, change * 100,
+                    regression ? "  REGRESSION" : ""));
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,388 @@
+package raytracer.benchmark;
+
+import raytracer.scene.*;
+import raytracer.texture.TextureCache;
+import raytracer.ui.RenderSettings;
+import raytracer.ui.SceneRenderer;
+import raytracer.ui.TileRenderer;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * This class renders a fixed set of scenes end to end and reports for each the wall time, the primary and secondary
+ * rays per second, the allocation rate and the peak heap as JSON. Resolutions, samples and seeds are fixed and the
+ * settings start from the built-in ones, not from the properties, so runs on the same machine can be compared. The
+ * settings used are part of the report.
+ * <p>
+ * The JSON is written to the file given with --out or else to the standard output. The lines for humans go to the
+ * standard error, so the standard output can be parsed.
+ * <p>
+ * Usage: {@code SceneBenchmark [--out <file.json>] [--samples <n>] [--threads <n>] [--warmup <n>] [<scene>...]}
+ * <p>
+ * Without scene names all scenes are rendered. Scenes that can not be built, e.g. because a texture is missing, are
+ * reported with an error and skipped.
+ *
+ * @author TrayRacer Team
+ */
+public class SceneBenchmark {
+    /**
+     * The seed of the sampling pattern and of the random scenes.
+     */
+    public static final long SEED = 1;
+    /**
+     * The default samples per pixel.
+     */
+    public static final int SAMPLES = 4;
+
+    /**
+     * This class describes a benchmarked scene.
+     */
+    private static class Entry {
+        /**
+         * The name of the scene.
+         */
+        final String name;
+        /**
+         * The width of the image.
+         */
+        final int width;
+        /**
+         * The height of the image.
+         */
+        final int height;
+        /**
+         * Creates the scene with the settings of the benchmark.
+         */
+        final Function<RenderSettings, RtScene> scene;
+
+        /**
+         * This constructor creates a new entry.
+         *
+         * @param name   The name of the scene.
+         * @param width  The width of the image.
+         * @param height The height of the image.
+         * @param scene  Creates the scene with the settings of the benchmark.
+         */
+        Entry(final String name, final int width, final int height, final Function<RenderSettings, RtScene> scene) {
+            this.name = name;
+            this.width = width;
+            this.height = height;
+            this.scene = scene;
+        }
+    }
+
+    /**
+     * The scenes in the order they are rendered.
+     */
+    private static final Entry[] SCENES = {
+            new Entry("OkCity", 320, 240, settings -> new OkCity(new Random(SEED), settings)),
+            new Entry("MirrorHall", 320, 240, MirrorHall::new),
+            new Entry("DOFSpheres", 160, 120, DOFSpheres::new),
+            new Entry("Earth", 320, 240, Earth::new),
+            new Entry("Cone", 320, 240, Cone::new),
+            new Entry("Bunny", 320, 240, Bunny::new),
+    };
+
+    /**
+     * Main method running the benchmark.
+     *
+     * @param args The options and scene names.
+     * @throws IOException If the results can not be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        String out = null;
+        int samples = SAMPLES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int warmups = 1;
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out":
+                    out = args[++i];
+                    break;
+                case "--samples":
+                    samples = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmups = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    if (args[i].startsWith("--")) {
+                        System.err.println("Usage: SceneBenchmark [--out <file.json>] [--samples <n>] [--threads <n>] [--warmup <n>] [<scene>...]");
+                        System.exit(1);
+                    }
+                    names.add(args[i]);
+            }
+        }
+        System.setProperty("java.awt.headless", "true");
+        // every pixel gets all samples, adaptive sampling would make the rays depend on the noise
+        final RenderSettings settings = RenderSettings.builtIn().withThreads(threads).withLinear(true)
+                .withSamples(samples).withAdaptiveSampling(Math.max(2, samples), 0).withSeed(SEED);
+
+        final List<Map<String, Object>> results = new ArrayList<>();
+        for (Entry entry : SCENES) {
+            if (!names.isEmpty() && !names.contains(entry.name)) continue;
+            final Map<String, Object> result = run(entry, settings, warmups);
+            System.err.println(format(result));
+            results.add(result);
+        }
+
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("java", System.getProperty("java.version"));
+        report.put("cores", Runtime.getRuntime().availableProcessors());
+        report.put("threads", settings.threads);
+        report.put("samples", settings.samples);
+        report.put("seed", SEED);
+        report.put("settings", settings(settings));
+        report.put("scenes", results);
+        final String json = toJson(report, "") + System.lineSeparator();
+        if (out == null) {
+            System.out.print(json);
+        } else {
+            try (Writer writer = new FileWriter(out)) {
+                writer.write(json);
+            }
+            System.err.println("# results written to " + out);
+        }
+    }
+
+    /**
+     * This method lists the settings that change what is rendered or how fast.
+     *
+     * @param settings The settings.
+     * @return The settings by name.
+     */
+    private static Map<String, Object> settings(final RenderSettings settings) {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("threaded", settings.threaded);
+        map.put("threads", settings.threads);
+        map.put("linear", settings.linear);
+        map.put("tileSize", settings.tileSize);
+        map.put("samples", settings.samples);
+        map.put("minSamples", settings.minSamples);
+        map.put("noiseThreshold", settings.noiseThreshold);
+        map.put("sampling", settings.sampling.name());
+        map.put("seed", settings.seed);
+        map.put("recursionDepth", settings.recursionDepth);
+        map.put("reflectionThreshold", settings.reflectionThreshold);
+        map.put("russianRoulette", settings.russianRoulette);
+        return map;
+    }
+
+    /**
+     * This method builds and renders a scene and measures it.
+     *
+     * @param entry    The scene.
+     * @param settings The settings of the renders.
+     * @param warmups  The number of renders at half the resolution before the measured one.
+     * @return The measurements by name.
+     */
+    private static Map<String, Object> run(final Entry entry, final RenderSettings settings, final int warmups) {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", entry.name);
+        result.put("width", entry.width);
+        result.put("height", entry.height);
+
+        final long buildStart = System.nanoTime();
+        final RtScene scene;
+        try {
+            scene = entry.scene.apply(settings);
+        } catch (RuntimeException e) {
+            result.put("error", e.getMessage() != null ? e.getMessage() : e.toString());
+            return result;
+        }
+        result.put("buildMs", (System.nanoTime() - buildStart) / 1e6);
+        result.put("textureCacheBytes", TextureCache.getByteCount());
+
+        for (int i = 0; i < warmups; i++) {
+            final SceneRenderer renderer = new SceneRenderer(scene.getWorld(), scene.getCam(),
+                    Math.max(1, entry.width / 2), Math.max(1, entry.height / 2), settings);
+            new TileRenderer(renderer.width, renderer.height, settings.tileSize, settings.threads, settings.linear, renderer).render();
+        }
+
+        final SceneRenderer renderer = new SceneRenderer(scene.getWorld(), scene.getCam(), entry.width, entry.height, settings);
+        final AllocationCounter allocations = new AllocationCounter(renderer);
+        final List<MemoryPoolMXBean> heap = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) heap.add(pool);
+        }
+        System.gc();
+        for (MemoryPoolMXBean pool : heap) {
+            pool.resetPeakUsage();
+        }
+        scene.getWorld().resetRayCounts();
+        scene.getWorld().setCountingRays(true);
+
+        final long start = System.nanoTime();
+        new TileRenderer(entry.width, entry.height, settings.tileSize, settings.threads, settings.linear, allocations).render();
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        scene.getWorld().setCountingRays(false);
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heap) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        final long primary = renderer.getPrimaryRayCount();
+        final long reflections = scene.getWorld().getRayCount() - primary;
+        final long shadows = scene.getWorld().getShadowRayCount();
+        final long allocated = allocations.getAllocatedBytes();
+
+        result.put("renderMs", seconds * 1e3);
+        result.put("primaryRays", primary);
+        result.put("secondaryRays", reflections + shadows);
+        result.put("shadowRays", shadows);
+        result.put("primaryRaysPerSecond", primary / seconds);
+        result.put("secondaryRaysPerSecond", (reflections + shadows) / seconds);
+        result.put("allocatedBytes", allocated);
+        result.put("allocationMBPerSecond", allocated < 0 ? -1.0 : allocated / seconds / (1024 * 1024));
+        result.put("peakHeapBytes", peakHeap);
+        return result;
+    }
+
+    /**
+     * This class renders the pixels with another renderer and sums the bytes allocated by the render threads.
+     */
+    private static class AllocationCounter implements TileRenderer.PixelRenderer {
+        /**
+         * The thread bean or null if the JVM can not measure allocations.
+         */
+        private final com.sun.management.ThreadMXBean threads;
+        /**
+         * The renderer for the pixels.
+         */
+        private final TileRenderer.PixelRenderer renderer;
+        /**
+         * The allocated bytes of each thread at its first and at its latest pixel.
+         */
+        private final ConcurrentLinkedQueue<long[]> counters = new ConcurrentLinkedQueue<>();
+        /**
+         * The counters of the current thread.
+         */
+        private final ThreadLocal<long[]> counter;
+
+        /**
+         * This constructor creates a counting renderer.
+         *
+         * @param renderer The renderer for the pixels.
+         */
+        AllocationCounter(final TileRenderer.PixelRenderer renderer) {
+            this.renderer = renderer;
+            final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+                threads = (com.sun.management.ThreadMXBean) bean;
+                threads.setThreadAllocatedMemoryEnabled(true);
+            } else {
+                threads = null;
+            }
+            counter = ThreadLocal.withInitial(() -> {
+                final long[] c = {allocated(), 0};
+                counters.add(c);
+                return c;
+            });
+        }
+
+        @Override
+        public void renderPixel(final int x, final int y) {
+            final long[] c = counter.get();
+            renderer.renderPixel(x, y);
+            // read after every pixel, the pool threads may be gone when the image is finished
+            c[1] = allocated();
+        }
+
+        /**
+         * This method returns the bytes allocated by the current thread so far.
+         *
+         * @return The allocated bytes or -1 if they can not be measured.
+         */
+        private long allocated() {
+            return threads != null ? threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+        }
+
+        /**
+         * This method returns the bytes allocated by all render threads while rendering.
+         *
+         * @return The allocated bytes or -1 if they can not be measured.
+         */
+        long getAllocatedBytes() {
+            if (threads == null) return -1;
+            long sum = 0;
+            for (long[] c : counters) {
+                sum += c[1] - c[0];
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * This method formats the measurements of a scene as a line of text.
+     *
+     * @param result The measurements.
+     * @return The line.
+     */
+    private static String format(final Map<String, Object> result) {
+        if (result.containsKey("error")) return String.format("%-12s skipped: %s", result.get("name"), result.get("error"));
+        return String.format(Locale.ROOT, "%-12s %4dx%-4d %9.1f ms %12.0f primary/s %12.0f secondary/s %9.1f MB/s %6d MB peak",
+                result.get("name"), result.get("width"), result.get("height"), result.get("renderMs"),
+                result.get("primaryRaysPerSecond"), result.get("secondaryRaysPerSecond"),
+                result.get("allocationMBPerSecond"), (Long) result.get("peakHeapBytes") / (1024 * 1024));
+    }
+
+    /**
+     * This method writes maps, lists, strings, numbers, booleans and null as JSON.
+     *
+     * @param value  The value.
+     * @param indent The indentation of the current line.
+     * @return The JSON text.
+     */
+    private static String toJson(final Object value, final String indent) {
+        if (value instanceof Map) {
+            final StringBuilder sb = new StringBuilder("{");
+            String separator = "";
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                sb.append(separator).append(System.lineSeparator()).append(indent).append("  ")
+                        .append(toJson(e.getKey().toString(), "")).append(": ").append(toJson(e.getValue(), indent + "  "));
+                separator = ",";
+            }
+            return sb.append(System.lineSeparator()).append(indent).append("}").toString();
+        }
+        if (value instanceof List) {
+            final StringBuilder sb = new StringBuilder("[");
+            String separator = "";
+            for (Object o : (List<?>) value) {
+                sb.append(separator).append(System.lineSeparator()).append(indent).append("  ").append(toJson(o, indent + "  "));
+                separator = ",";
+            }
+            return sb.append(System.lineSeparator()).append(indent).append("]").toString();
+        }
+        if (value instanceof Double) {
+            final double d = (Double) value;
+            if (Double.isNaN(d) || Double.isInfinite(d)) return "null";
+            return String.format(Locale.ROOT, "%.3f", d);
+        }
+        if (value instanceof Number || value instanceof Boolean || value == null) return String.valueOf(value);
+        final StringBuilder sb = new StringBuilder("\"");
+        for (char c : String.valueOf(value).toCharArray()) {
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+}
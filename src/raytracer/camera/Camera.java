@@ -5,6 +5,7 @@ import raytracer.math.Ray;
 import raytracer.math.Vector3;
 import raytracer.sampling.SamplingPattern;
 
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
@@ -63,6 +64,7 @@ public abstract class Camera {
 
     /**
      * This method calculates a Set of Rays for this camera with the given dimensions of the image-plane and the given pixel.
+     * Equal rays are only contained once, renderers use raysFor instead.
      *
      * @param w The width of the image-plane in pixels.
      * @param h The height of the image-plane in pixels.
@@ -70,7 +72,44 @@ public abstract class Camera {
      * @param y The y-coordinate of the pixel.
      * @return The Ray-Set for the given Parameters.
      */
-    public abstract Set<Ray> rayFor(final int w, final int h, final int x, final int y);
+    public Set<Ray> rayFor(final int w, final int h, final int x, final int y) {
+        final RayBuffer rays = new RayBuffer();
+        raysFor(w, h, x, y, rays);
+        final Set<Ray> raySet = new LinkedHashSet<>();
+        for (int i = 0; i < rays.size(); i++) {
+            raySet.add(rays.getRay(i));
+        }
+        return raySet;
+    }
+
+    /**
+     * This method calculates the rays for this camera with the given dimensions of the image-plane and the given
+     * pixel and adds them to the buffer, one for each point of the sampling pattern.
+     *
+     * @param w    The width of the image-plane in pixels.
+     * @param h    The height of the image-plane in pixels.
+     * @param x    The x-coordinate of the pixel.
+     * @param y    The y-coordinate of the pixel.
+     * @param rays The buffer the rays are added to.
+     */
+    public void raysFor(final int w, final int h, final int x, final int y, final RayBuffer rays) {
+        raysFor(w, h, x, y, 0, pattern.numberOfPoints, rays);
+    }
+
+    /**
+     * This method calculates the rays of some samples of the given pixel and adds them to the buffer, sample by
+     * sample. Every sample adds the same number of rays. Renderers use it to add samples where a pixel is noisy.
+     *
+     * @param w     The width of the image-plane in pixels.
+     * @param h     The height of the image-plane in pixels.
+     * @param x     The x-coordinate of the pixel.
+     * @param y     The y-coordinate of the pixel.
+     * @param first The index of the first sample. Must not be negative.
+     * @param count The number of samples.
+     * @param rays  The buffer the rays are added to.
+     */
+    public abstract void raysFor(final int w, final int h, final int x, final int y, final int first, final int count,
+                                 final RayBuffer rays);
 
     @Override
     public boolean equals(final Object o) {
@@ -2,12 +2,10 @@ package raytracer.camera;
 
 import raytracer.math.Point2;
 import raytracer.math.Point3;
-import raytracer.math.Ray;
 import raytracer.math.Vector3;
 import raytracer.sampling.SamplingPattern;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.List;
 
 /**
  * This class represents a perspective camera with a focus plane.
@@ -15,6 +13,10 @@ import java.util.Set;
  * @author TrayRacer Team
  */
 public class FocusCamera extends Camera {
+    /**
+     * The number of points on the lens each sample is traced from.
+     */
+    private static final int LENS_SAMPLES = 16;
     /**
      * The angle of the camera.
      */
@@ -27,6 +29,14 @@ public class FocusCamera extends Camera {
      * The radius of the lens.
      */
     public final double lensRadius;
+    /**
+     * The points on the lens the rays start from, x, y and z for each.
+     */
+    private final double[] lensPoints;
+    /**
+     * The image plane of the last resolution rays were created for.
+     */
+    private volatile ImagePlane plane;
 
     /**
      * This constructor creates a perspective focus camera with the given parameters.
@@ -47,30 +57,135 @@ public class FocusCamera extends Camera {
         this.angle = angle;
         this.focusDistance = focusDistance;
         this.lensRadius = lensRadius;
+        this.lensPoints = lensPoints();
     }
 
     @Override
-    public Set<Ray> rayFor(final int width, final int height, final int x, final int y) {
+    public void raysFor(final int width, final int height, final int x, final int y, final int first, final int count,
+                        final RayBuffer rays) {
         if (width <= 0 || height <= 0) {
             throw new IllegalArgumentException("Width or height must be greater than zero.");
         }
         if (x < 0 || x >= width || y < 0 || y >= height) {
             throw new IllegalArgumentException("Parameters must greater than zero and smaller than width or height respectively");
         }
+        if (rays == null) throw new IllegalArgumentException("Rays must not be null.");
+        if (first < 0) throw new IllegalArgumentException("First sample must not be negative.");
 
-        double oldD = (height / 2) / Math.tan(angle / 2);
+        final ImagePlane plane = imagePlane(width, height);
+        for (int i = first; i < first + count; i++) {
+            addRays(plane, x + pattern.getX(x, y, i) - plane.centerX, y + pattern.getY(x, y, i) - plane.centerY, rays);
+        }
+    }
+
+    /**
+     * This method adds the rays from all lens points through the focus point of a point of the image plane.
+     *
+     * @param plane The image plane.
+     * @param px    The horizontal distance of the point from the center of the image plane, in pixels.
+     * @param py    The vertical distance of the point from the center of the image plane, in pixels.
+     * @param rays  The buffer the rays are added to.
+     */
+    private void addRays(final ImagePlane plane, final double px, final double py, final RayBuffer rays) {
+        final double sx = px * focusDistance / plane.distance;
+        final double sy = py * focusDistance / plane.distance;
+        // the point on the focus plane all rays of this sample meet in
+        final double fx = e.x + (plane.forwardX + u.x * sx + v.x * sy);
+        final double fy = e.y + (plane.forwardY + u.y * sx + v.y * sy);
+        final double fz = e.z + (plane.forwardZ + u.z * sx + v.z * sy);
+
+        for (int i = 0; i < lensPoints.length; i += 3) {
+            final double dx = fx - lensPoints[i], dy = fy - lensPoints[i + 1], dz = fz - lensPoints[i + 2];
+            final double magnitude = Math.sqrt((dx * dx) + (dy * dy) + (dz * dz));
+            rays.add(lensPoints[i], lensPoints[i + 1], lensPoints[i + 2], dx / magnitude, dy / magnitude, dz / magnitude,
+                    0, plane.coneSpread);
+        }
+    }
 
-        Set<Ray> raySet = new LinkedHashSet<>();
-        for (Point2 point : pattern.getPoints()) {
-            Vector3 r = this.w.invert().mul(focusDistance).add(u.mul((x + point.x - ((width - 1) / 2)) * focusDistance / oldD)).add(v.mul((y + point.y - ((height - 1) / 2)) * focusDistance / oldD));
+    /**
+     * This method computes the points on the lens the rays start from, 16 of them on a regular disc.
+     *
+     * @return The points, x, y and z for each.
+     */
+    private double[] lensPoints() {
+        final List<Point2> disc = new SamplingPattern().regularDisc(LENS_SAMPLES).getPoints();
+        final double[] points = new double[3 * disc.size()];
+        int i = 0;
+        for (Point2 lensPoint : disc) {
+            final Point3 lensE = e.add(u.mul(lensPoint.x * lensRadius)).add(v.mul(lensPoint.y * lensRadius));
+            points[i++] = lensE.x;
+            points[i++] = lensE.y;
+            points[i++] = lensE.z;
+        }
+        return points;
+    }
+
+    /**
+     * This method returns the image plane for the given resolution, computing it only when the resolution changed.
+     *
+     * @param width  The width of the image-plane in pixels.
+     * @param height The height of the image-plane in pixels.
+     * @return The image plane.
+     */
+    private ImagePlane imagePlane(final int width, final int height) {
+        ImagePlane plane = this.plane;
+        if (plane == null || plane.width != width || plane.height != height) {
+            plane = new ImagePlane(width, height);
+            this.plane = plane;
+        }
+        return plane;
+    }
+
+    /**
+     * This class holds the values of the camera that only depend on the resolution.
+     */
+    private class ImagePlane {
+        /**
+         * The width of the image-plane in pixels.
+         */
+        final int width;
+        /**
+         * The height of the image-plane in pixels.
+         */
+        final int height;
+        /**
+         * The distance between e and the image plane of the same camera without a lens, in pixels.
+         */
+        final double distance;
+        /**
+         * The vector from the eye to the center of the focus plane.
+         */
+        final double forwardX, forwardY, forwardZ;
+        /**
+         * The x-coordinate of the center pixel.
+         */
+        final double centerX;
+        /**
+         * The y-coordinate of the center pixel.
+         */
+        final double centerY;
+        /**
+         * The growth of the width of the ray cones, a pixel per distance to the image plane.
+         */
+        final double coneSpread;
 
-            for (Point2 lensPoint : new SamplingPattern().regularDisc(16).getPoints()) {
-                Point3 lensE = e.add(u.mul(lensPoint.x * lensRadius)).add(v.mul(lensPoint.y * lensRadius));
-                Vector3 lensD = e.add(r).sub(lensE).normalized();
-                raySet.add(new Ray(lensE, lensD));
-            }
+        /**
+         * This constructor computes the image plane for the given resolution.
+         *
+         * @param width  The width of the image-plane in pixels.
+         * @param height The height of the image-plane in pixels.
+         */
+        ImagePlane(final int width, final int height) {
+            this.width = width;
+            this.height = height;
+            this.distance = (height / 2) / Math.tan(angle / 2);
+            this.forwardX = -w.x * focusDistance;
+            this.forwardY = -w.y * focusDistance;
+            this.forwardZ = -w.z * focusDistance;
+            this.centerX = (width - 1) / 2;
+            this.centerY = (height - 1) / 2;
+            this.coneSpread = 1 / distance;
         }
-        return raySet;
     }
 
     @Override
@@ -1,14 +1,9 @@
 package raytracer.camera;
 
-import raytracer.math.Point2;
 import raytracer.math.Point3;
-import raytracer.math.Ray;
 import raytracer.math.Vector3;
 import raytracer.sampling.SamplingPattern;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
-
 /**
  * This class represents an orthographic Camera.
  *
@@ -19,6 +14,10 @@ public class OrthographicCamera extends Camera {
      * The scaling factor for the image-plane.
      */
     public final double s;
+    /**
+     * The image plane of the last resolution rays were created for.
+     */
+    private volatile ImagePlane plane;
 
     /**
      * This constructor creates the camera coordinate system via superclass and sets the scaling factor for the image-plane.
@@ -34,15 +33,103 @@ public class OrthographicCamera extends Camera {
     }
 
     @Override
-    public Set<Ray> rayFor(final int w, final int h, final int x, final int y) {
-        double a = (double) w / (double) h;
-        Set<Ray> raySet = new LinkedHashSet<>();
-        for(Point2 point : pattern.getPoints()){
-            Point3 o = this.e.add(this.u.mul(a * this.s * (x + point.x - ((w - 1) / 2)) / (w - 1))).add(this.v.mul(this.s * (y + point.y - ((h - 1) / 2)) / (h - 1)));
-            Vector3 d = this.w.invert();
-            raySet.add(new Ray(o, d));
+    public void raysFor(final int w, final int h, final int x, final int y, final int first, final int count,
+                        final RayBuffer rays) {
+        if (rays == null) throw new IllegalArgumentException("Rays must not be null.");
+        if (first < 0) throw new IllegalArgumentException("First sample must not be negative.");
+        final ImagePlane plane = imagePlane(w, h);
+        for (int i = first; i < first + count; i++) {
+            addRay(plane, x + pattern.getX(x, y, i) - plane.centerX, y + pattern.getY(x, y, i) - plane.centerY, rays);
+        }
+    }
+
+    /**
+     * This method adds the ray through a point of the image plane.
+     *
+     * @param plane The image plane.
+     * @param px    The horizontal distance of the point from the center of the image plane, in pixels.
+     * @param py    The vertical distance of the point from the center of the image plane, in pixels.
+     * @param rays  The buffer the ray is added to.
+     */
+    private void addRay(final ImagePlane plane, final double px, final double py, final RayBuffer rays) {
+        final double sx = plane.scaleX * px / plane.columns;
+        final double sy = this.s * py / plane.rows;
+        final double ox = e.x + u.x * sx + v.x * sy;
+        final double oy = e.y + u.y * sx + v.y * sy;
+        final double oz = e.z + u.z * sx + v.z * sy;
+        rays.add(ox, oy, oz, -w.x, -w.y, -w.z, plane.coneWidth, 0);
+    }
+
+    /**
+     * This method returns the image plane for the given resolution, computing it only when the resolution changed.
+     *
+     * @param width  The width of the image-plane in pixels.
+     * @param height The height of the image-plane in pixels.
+     * @return The image plane.
+     */
+    private ImagePlane imagePlane(final int width, final int height) {
+        ImagePlane plane = this.plane;
+        if (plane == null || plane.width != width || plane.height != height) {
+            plane = new ImagePlane(width, height);
+            this.plane = plane;
+        }
+        return plane;
+    }
+
+    /**
+     * This class holds the values of the camera that only depend on the resolution.
+     */
+    private class ImagePlane {
+        /**
+         * The width of the image-plane in pixels.
+         */
+        final int width;
+        /**
+         * The height of the image-plane in pixels.
+         */
+        final int height;
+        /**
+         * The width of the image-plane, the scaling factor times the aspect ratio.
+         */
+        final double scaleX;
+        /**
+         * The x-coordinate of the center pixel.
+         */
+        final double centerX;
+        /**
+         * The y-coordinate of the center pixel.
+         */
+        final double centerY;
+        /**
+         * The distance between the first and the last column in pixels.
+         */
+        final double columns;
+        /**
+         * The distance between the first and the last row in pixels.
+         */
+        final double rows;
+        /**
+         * The width of the parallel ray cones, a pixel each.
+         */
+        final double coneWidth;
+
+        /**
+         * This constructor computes the image plane for the given resolution.
+         *
+         * @param width  The width of the image-plane in pixels.
+         * @param height The height of the image-plane in pixels.
+         */
+        ImagePlane(final int width, final int height) {
+            this.width = width;
+            this.height = height;
+            this.scaleX = (double) width / (double) height * s;
+            this.centerX = (width - 1) / 2;
+            this.centerY = (height - 1) / 2;
+            this.columns = width - 1;
+            this.rows = height - 1;
+            final double magnitude = Math.sqrt((w.x * w.x) + (w.y * w.y) + (w.z * w.z));
+            this.coneWidth = s / Math.max(1, height - 1) / magnitude;
         }
-        return raySet;
     }
 
     @Override
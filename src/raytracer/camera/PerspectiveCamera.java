@@ -1,13 +1,9 @@
 package raytracer.camera;
 
-import raytracer.math.Point2;
 import raytracer.math.Point3;
-import raytracer.math.Ray;
 import raytracer.math.Vector3;
 import raytracer.sampling.SamplingPattern;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
 
 /**
  * This class represents a perspective camera.
@@ -20,6 +16,10 @@ public class PerspectiveCamera extends Camera {
      * The angle of the camera.
      */
     public final double angle;
+    /**
+     * The image plane of the last resolution rays were created for.
+     */
+    private volatile ImagePlane plane;
 
     /**
      * This constructor creates a perspective camera with the given parameters.
@@ -37,22 +37,117 @@ public class PerspectiveCamera extends Camera {
     }
 
     @Override
-    public Set<Ray> rayFor(final int width, final int height, final int x, final int y) {
+    public void raysFor(final int width, final int height, final int x, final int y, final int first, final int count,
+                        final RayBuffer rays) {
         if (width <= 0 || height <= 0) {
             throw new IllegalArgumentException("Width or height must be greater than zero.");
         }
         if (x < 0 || x >= width || y < 0 || y >= height) {
             throw new IllegalArgumentException("Parameters must greater than zero and smaller than width or height respectively");
         }
+        if (rays == null) throw new IllegalArgumentException("Rays must not be null.");
+        addRays(width, height, x, y, first, count, 0, rays);
+    }
+
+    /**
+     * This method adds the rays of some samples of a pixel whose horizontal position is moved by the given offset.
+     *
+     * @param width  The width of the image-plane in pixels.
+     * @param height The height of the image-plane in pixels.
+     * @param x      The x-coordinate of the pixel.
+     * @param y      The y-coordinate of the pixel.
+     * @param first  The index of the first sample.
+     * @param count  The number of samples.
+     * @param offset The number of pixels subtracted from the x-coordinate.
+     * @param rays   The buffer the rays are added to.
+     */
+    protected void addRays(final int width, final int height, final int x, final int y, final int first, final int count,
+                           final double offset, final RayBuffer rays) {
+        if (first < 0) throw new IllegalArgumentException("First sample must not be negative.");
+        final ImagePlane plane = imagePlane(width, height);
+        for (int i = first; i < first + count; i++) {
+            addRay(plane, x + pattern.getX(x, y, i) - plane.centerX - offset, y + pattern.getY(x, y, i) - plane.centerY, rays);
+        }
+    }
+
+    /**
+     * This method adds the ray through a point of the image plane.
+     *
+     * @param plane The image plane.
+     * @param px    The horizontal distance of the point from the center of the image plane, in pixels.
+     * @param py    The vertical distance of the point from the center of the image plane, in pixels.
+     * @param rays  The buffer the ray is added to.
+     */
+    private void addRay(final ImagePlane plane, final double px, final double py, final RayBuffer rays) {
+        final double rx = plane.forwardX + u.x * px + v.x * py;
+        final double ry = plane.forwardY + u.y * px + v.y * py;
+        final double rz = plane.forwardZ + u.z * px + v.z * py;
+        final double scale = 1 / Math.sqrt((rx * rx) + (ry * ry) + (rz * rz));
+        rays.add(e.x, e.y, e.z, rx * scale, ry * scale, rz * scale, 0, plane.coneSpread);
+    }
 
-        Set<Ray> raySet = new LinkedHashSet<>();
-        for(Point2 point : pattern.getPoints()) {
-            Vector3 r = this.w.invert().mul((height / 2) / Math.tan(angle / 2)).add(u.mul(x + point.x - ((width - 1) / 2))).add(v.mul(y + point.y - ((height - 1) / 2)));
-            Vector3 d = r.mul(1 / r.magnitude);
-            raySet.add(new Ray(e, d));
+    /**
+     * This method returns the image plane for the given resolution, computing it only when the resolution changed.
+     *
+     * @param width  The width of the image-plane in pixels.
+     * @param height The height of the image-plane in pixels.
+     * @return The image plane.
+     */
+    private ImagePlane imagePlane(final int width, final int height) {
+        ImagePlane plane = this.plane;
+        if (plane == null || plane.width != width || plane.height != height) {
+            plane = new ImagePlane(width, height);
+            this.plane = plane;
         }
+        return plane;
+    }
 
-        return raySet;
+    /**
+     * This class holds the values of the camera that only depend on the resolution.
+     */
+    private class ImagePlane {
+        /**
+         * The width of the image-plane in pixels.
+         */
+        final int width;
+        /**
+         * The height of the image-plane in pixels.
+         */
+        final int height;
+        /**
+         * The vector from the eye to the center of the image-plane, in pixels.
+         */
+        final double forwardX, forwardY, forwardZ;
+        /**
+         * The x-coordinate of the center pixel.
+         */
+        final double centerX;
+        /**
+         * The y-coordinate of the center pixel.
+         */
+        final double centerY;
+        /**
+         * The growth of the width of the ray cones, a pixel per distance to the image plane.
+         */
+        final double coneSpread;
+
+        /**
+         * This constructor computes the image plane for the given resolution.
+         *
+         * @param width  The width of the image-plane in pixels.
+         * @param height The height of the image-plane in pixels.
+         */
+        ImagePlane(final int width, final int height) {
+            this.width = width;
+            this.height = height;
+            final double distance = (height / 2) / Math.tan(angle / 2);
+            this.forwardX = -w.x * distance;
+            this.forwardY = -w.y * distance;
+            this.forwardZ = -w.z * distance;
+            this.centerX = (width - 1) / 2;
+            this.centerY = (height - 1) / 2;
+            this.coneSpread = 1 / distance;
+        }
     }
 
     @Override
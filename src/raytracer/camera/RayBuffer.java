@@ -0,0 +1,103 @@
+package raytracer.camera;
+
+import raytracer.math.Point3;
+import raytracer.math.Ray;
+import raytracer.math.Vector3;
+
+import java.util.Arrays;
+
+/**
+ * This class is a reusable buffer for the rays of a pixel. The rays are stored as primitive values in one array,
+ * origin, direction and cone for each, so a camera fills it without hashing and without creating a collection per
+ * pixel. A render thread keeps one buffer and clears it for every pixel.
+ *
+ * @author TrayRacer Team
+ */
+public class RayBuffer {
+    /**
+     * The number of values stored per ray.
+     */
+    private static final int STRIDE = 8;
+
+    /**
+     * The origin, direction, cone width and cone spread of the rays, STRIDE values each.
+     */
+    private double[] values;
+    /**
+     * The number of rays in the buffer.
+     */
+    private int size;
+
+    /**
+     * This constructor creates an empty buffer with room for 16 rays.
+     */
+    public RayBuffer() {
+        this(16);
+    }
+
+    /**
+     * This constructor creates an empty buffer. It grows when more rays are added.
+     *
+     * @param capacity The number of rays the buffer holds before it grows. Must be larger than 0.
+     */
+    public RayBuffer(final int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be larger than 0.");
+        this.values = new double[STRIDE * capacity];
+    }
+
+    /**
+     * This method removes all rays. The memory is kept for the next pixel.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * This method returns the number of rays in the buffer.
+     *
+     * @return The number of rays.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * This method adds a ray.
+     *
+     * @param ox         The x-coordinate of the origin.
+     * @param oy         The y-coordinate of the origin.
+     * @param oz         The z-coordinate of the origin.
+     * @param dx         The x-component of the direction.
+     * @param dy         The y-component of the direction.
+     * @param dz         The z-component of the direction.
+     * @param coneWidth  The width of the ray cone at the origin.
+     * @param coneSpread The growth of the width of the ray cone per unit of t.
+     */
+    public void add(final double ox, final double oy, final double oz, final double dx, final double dy, final double dz,
+                    final double coneWidth, final double coneSpread) {
+        if (STRIDE * (size + 1) > values.length) values = Arrays.copyOf(values, 2 * values.length);
+        final int i = STRIDE * size;
+        values[i] = ox;
+        values[i + 1] = oy;
+        values[i + 2] = oz;
+        values[i + 3] = dx;
+        values[i + 4] = dy;
+        values[i + 5] = dz;
+        values[i + 6] = coneWidth;
+        values[i + 7] = coneSpread;
+        size++;
+    }
+
+    /**
+     * This method creates a Ray out of the stored values.
+     *
+     * @param index The index of the ray, 0 to size() - 1.
+     * @return The Ray.
+     */
+    public Ray getRay(final int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + " is not in the buffer.");
+        final int i = STRIDE * index;
+        return new Ray(new Point3(values[i], values[i + 1], values[i + 2]), new Vector3(values[i + 3], values[i + 4], values[i + 5]),
+                values[i + 6], values[i + 7]);
+    }
+}
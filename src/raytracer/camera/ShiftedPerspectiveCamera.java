@@ -1,14 +1,9 @@
 package raytracer.camera;
 
-import raytracer.math.Point2;
 import raytracer.math.Point3;
-import raytracer.math.Ray;
 import raytracer.math.Vector3;
 import raytracer.sampling.SamplingPattern;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
-
 /**
  * @author Oliver Kniejski
  *         <p>
@@ -36,15 +31,10 @@ public class ShiftedPerspectiveCamera extends PerspectiveCamera {
     }
 
     @Override
-    public Set<Ray> rayFor(final int width, final int height, final int x, final int y) {
-
-        Set<Ray> raySet = new LinkedHashSet<>();
-        for(Point2 point : pattern.getPoints()) {
-            Vector3 r = this.w.invert().mul((height / 2) / Math.tan(angle / 2)).add(u.mul(x + point.x - ((width - 1) / 2) - (shift * 10))).add(v.mul(y + point.y - ((height - 1) / 2)));
-            Vector3 d = r.mul(1 / r.magnitude);
-            raySet.add(new Ray(e, d));
-        }
-        return raySet;
+    public void raysFor(final int width, final int height, final int x, final int y, final int first, final int count,
+                        final RayBuffer rays) {
+        if (rays == null) throw new IllegalArgumentException("Rays must not be null.");
+        addRays(width, height, x, y, first, count, shift * 10, rays);
     }
 
     @Override
@@ -2,13 +2,9 @@ package raytracer.camera;
 
 import raytracer.math.Point2;
 import raytracer.math.Point3;
-import raytracer.math.Ray;
 import raytracer.math.Vector3;
 import raytracer.sampling.SamplingPattern;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
-
 /**
  * @author Oliver Kniejski
  *         <p>
@@ -61,20 +57,21 @@ public class StereoCamera extends Camera {
     /**
      * This method directs the call for rays to the corresponding cameras.
      *
-     * @param w The width of the image-plane in pixels.
-     * @param h The height of the image-plane in pixels.
-     * @param x The x-coordinate of the pixel.
-     * @param y The y-coordinate of the pixel.
-     * @return The Ray for the given Parameters.
+     * @param w    The width of the image-plane in pixels.
+     * @param h    The height of the image-plane in pixels.
+     * @param x    The x-coordinate of the pixel.
+     * @param y    The y-coordinate of the pixel.
+     * @param rays The buffer the rays are added to.
      */
     @Override
-    public Set<Ray> rayFor(final int w, final int h, final int x, final int y) {
+    public void raysFor(final int w, final int h, final int x, final int y, final int first, final int count,
+                        final RayBuffer rays) {
         if (x < w / 2) {
-            if (transverse) return camR.rayFor(w / 2, h, x, y);
-            else return camL.rayFor(w / 2, h, x, y);
+            if (transverse) camR.raysFor(w / 2, h, x, y, first, count, rays);
+            else camL.raysFor(w / 2, h, x, y, first, count, rays);
         } else {
-            if (transverse) return camL.rayFor(w / 2, h, x - w / 2, y);
-            else return camR.rayFor(w / 2, h, x - w / 2, y);
+            if (transverse) camL.raysFor(w / 2, h, x - w / 2, y, first, count, rays);
+            else camR.raysFor(w / 2, h, x - w / 2, y, first, count, rays);
         }
 
     }
@@ -0,0 +1,30 @@
+package raytracer.geometry;
+
+import raytracer.math.Ray;
+
+/**
+ * This class reports whether any geometry blocks a ray while a bounding volume hierarchy over geometries is
+ * traversed. It keeps no state, so one instance can be shared by all threads.
+ *
+ * @author TrayRacer Team
+ */
+class AnyHit implements BVH.Occluder {
+    /**
+     * The geometries indexed by the primitives of the hierarchy.
+     */
+    private final Geometry[] geometries;
+
+    /**
+     * This constructor creates an occlusion test for the given geometries.
+     *
+     * @param geometries The geometries indexed by the primitives of the hierarchy.
+     */
+    AnyHit(final Geometry[] geometries) {
+        this.geometries = geometries;
+    }
+
+    @Override
+    public boolean occludes(final int primitive, final Ray ray, final double tMax) {
+        return geometries[primitive].occludes(ray, tMax);
+    }
+}
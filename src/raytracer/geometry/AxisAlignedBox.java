@@ -1,15 +1,10 @@
 package raytracer.geometry;
 
 import raytracer.material.Material;
-import raytracer.material.NoMaterial;
 import raytracer.math.*;
 import raytracer.texture.TexCoord2;
 import raytracer.texture.TextureUtils;
 
-import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
-
 /**
  * This class represents a Box that is aligned by the axes.
  *
@@ -25,16 +20,21 @@ public class AxisAlignedBox extends Geometry {
      */
     public final Point3 run;
     /**
-     * Array for the 6 Planes describing the Box.
+     * The rows of the inverse transformations of the 6 faces, 12 values per face. Each face is the plane y = 0 of its
+     * own coordinate system, the texture coordinates are its x and z.
+     */
+    private final double[] faces = new double[6 * 12];
+    /**
+     * The outward normals of the 6 faces.
      */
-    private final Geometry[] planes = new Geometry[6];
+    private final Normal3[] normals = new Normal3[6];
     /**
      * The scalar for the texture of the planes describing the Box.
      */
     public final int textureScalar;
 
     /**
-     * This constructor creates the 6 Planes describing the Box out of the 2 Points with a default texture scalar.
+     * This constructor creates the Box out of the 2 Points with a default texture scalar.
      * Each value of the Point lbf has to be smaller than the corresponding value of the Point run.
      *
      * @param material The material of the Box.
@@ -45,7 +45,7 @@ public class AxisAlignedBox extends Geometry {
     }
 
     /**
-     * This constructor creates the 6 Planes describing the Box out of the 2 Points with a default texture scalar.
+     * This constructor creates the Box out of the 2 Points with a default texture scalar.
      * Each value of the Point lbf has to be smaller than the corresponding value of the Point run.
      *
      * @param lbf      The left-bottom-far Point of the Box.
@@ -57,7 +57,7 @@ public class AxisAlignedBox extends Geometry {
     }
 
     /**
-     * This constructor creates the 6 Planes describing the Box out of the 2 Points.
+     * This constructor creates the Box out of the 2 Points.
      * Each value of the Point lbf has to be smaller than the corresponding value of the Point run.
      *
      * @param lbf           The left-bottom-far Point of the Box.
@@ -74,29 +74,124 @@ public class AxisAlignedBox extends Geometry {
         this.run = run;
         this.textureScalar = textureScalar;
 
-        List<Geometry> onePlane = new LinkedList<Geometry>(Arrays.asList(new Plane(material, textureScalar)));
-
-        planes[0] = new Node(new Transform().translation(lbf.x, lbf.y, lbf.z).rotateX(-Math.PI/2), onePlane, new NoMaterial()); //bottom
-        planes[1] = new Node(new Transform().translation(run.x, run.y, run.z).rotateX(Math.PI/2), onePlane, new NoMaterial()); //top
-        planes[2] = new Node(new Transform().translation(lbf.x, lbf.y, lbf.z).rotateZ(Math.PI/2), onePlane, new NoMaterial()); //left
-        planes[3] = new Node(new Transform().translation(run.x, run.y, run.z).rotateZ(-Math.PI/2), onePlane, new NoMaterial()); //right
-        planes[4] = new Node(new Transform().translation(lbf.x, lbf.y, lbf.z).rotateX(Math.PI), onePlane, new NoMaterial()); //front
-        planes[5] = new Node(new Transform().translation(run.x, run.y, run.z), onePlane, new NoMaterial()); //back
+        // the faces were transformed planes once, their inverse matrices are kept so the hits stay bit for bit the same
+        final Transform[] transforms = {
+                new Transform().translation(lbf.x, lbf.y, lbf.z).rotateX(-Math.PI / 2), //bottom
+                new Transform().translation(run.x, run.y, run.z).rotateX(Math.PI / 2), //top
+                new Transform().translation(lbf.x, lbf.y, lbf.z).rotateZ(Math.PI / 2), //left
+                new Transform().translation(run.x, run.y, run.z).rotateZ(-Math.PI / 2), //right
+                new Transform().translation(lbf.x, lbf.y, lbf.z).rotateX(Math.PI), //front
+                new Transform().translation(run.x, run.y, run.z) //back
+        };
+        for (int f = 0; f < 6; f++) {
+            final Mat4x4 i = transforms[f].i;
+            System.arraycopy(new double[]{i.m11, i.m12, i.m13, i.m14, i.m21, i.m22, i.m23, i.m24, i.m31, i.m32, i.m33, i.m34},
+                    0, faces, f * 12, 12);
+            normals[f] = transforms[f].mul(new Normal3(0, 1, 0));
+        }
     }
 
     @Override
     public Hit hit(final Ray ray) {
         if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
-        for (Geometry plane : planes) {
-            Hit hit = plane.hit(ray);
-            if (hit != null && hit.normal.dot(ray.d) / ray.d.magnitude <= Math.cos(Math.PI / 2)) {
-                Point3 hitPoint = ray.at(hit.t);
-                if (hit.t > Constants.EPSILON && lbf.x - Constants.EPSILON <= hitPoint.x && hitPoint.x <= run.x + Constants.EPSILON && lbf.y - Constants.EPSILON <= hitPoint.y && hitPoint.y <= run.y + Constants.EPSILON && lbf.z - Constants.EPSILON <= hitPoint.z && hitPoint.z <= run.z + Constants.EPSILON) {
-                    return hit;
-                }
+        final HitRecord rec = new HitRecord();
+        if (!intersect(ray, rec)) return null;
+        return createHit(ray, rec);
+    }
+
+    @Override
+    public boolean intersect(final Ray ray, final HitRecord rec) {
+        if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
+        final int face = entryFace(ray);
+        if (face < 0) return false;
+        final double t = faceT(ray, face);
+        if (!(t < rec.t)) return false;
+        rec.set(t, this, face, 0, 0);
+        return true;
+    }
+
+    @Override
+    public Hit createHit(final Ray ray, final HitRecord rec) {
+        final int f = rec.primitive * 12;
+        final double t = rec.t;
+        // the hit point in the coordinate system of the face, calculated like the transformed ray of a Node
+        final double ox = faces[f] * ray.o.x + faces[f + 1] * ray.o.y + faces[f + 2] * ray.o.z + faces[f + 3];
+        final double oz = faces[f + 8] * ray.o.x + faces[f + 9] * ray.o.y + faces[f + 10] * ray.o.z + faces[f + 11];
+        final double dx = faces[f] * ray.d.x + faces[f + 1] * ray.d.y + faces[f + 2] * ray.d.z;
+        final double dz = faces[f + 8] * ray.d.x + faces[f + 9] * ray.d.y + faces[f + 10] * ray.d.z;
+        final TexCoord2 coord = new TexCoord2((ox + dx * t) / textureScalar, (oz + dz * t) / textureScalar);
+        final double footprint = TextureUtils.footprint(ray, t, normals[rec.primitive]) / textureScalar;
+        return new Hit(t, ray, material, normals[rec.primitive], coord, footprint, footprint);
+    }
+
+    @Override
+    public boolean occludes(final Ray ray, final double tMax) {
+        if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
+        final int face = entryFace(ray);
+        return face >= 0 && faceT(ray, face) < tMax;
+    }
+
+    /**
+     * This method finds the face through which the ray enters the box. A slab test rejects rays that miss the box
+     * first, then the faces turned towards the ray are tested in a fixed order and the first one whose hit point
+     * lies on the box within Constants.EPSILON is taken.
+     *
+     * @param ray The ray.
+     * @return The index of the face or -1 if the ray does not enter the box at a t larger than Constants.EPSILON.
+     */
+    private int entryFace(final Ray ray) {
+        // the slabs are widened, so every ray accepted by the face tests below passes them despite rounding
+        final double e = 2 * Constants.EPSILON;
+        final double ix = 1 / ray.d.x;
+        final double iy = 1 / ray.d.y;
+        final double iz = 1 / ray.d.z;
+        final double tx0 = (lbf.x - e - ray.o.x) * ix;
+        final double tx1 = (run.x + e - ray.o.x) * ix;
+        final double ty0 = (lbf.y - e - ray.o.y) * iy;
+        final double ty1 = (run.y + e - ray.o.y) * iy;
+        final double tz0 = (lbf.z - e - ray.o.z) * iz;
+        final double tz1 = (run.z + e - ray.o.z) * iz;
+        final double tNear = Math.max(Math.max(Math.min(tx0, tx1), Math.min(ty0, ty1)), Math.min(tz0, tz1));
+        final double tFar = Math.min(Math.min(Math.max(tx0, tx1), Math.max(ty0, ty1)), Math.max(tz0, tz1));
+        // comparisons with NaN are false, so degenerate slabs fall through to the exact test
+        if (tNear > tFar || tFar <= Constants.EPSILON) return -1;
+
+        final double magnitude = ray.d.magnitude;
+        final double cos = Math.cos(Math.PI / 2);
+        for (int face = 0; face < 6; face++) {
+            final Normal3 n = normals[face];
+            if (!(n.dot(ray.d) / magnitude <= cos)) continue;
+            final double t = faceT(ray, face);
+            if (!(t > Constants.EPSILON && t < Double.POSITIVE_INFINITY)) continue;
+            final double x = ray.o.x + ray.d.x * t;
+            final double y = ray.o.y + ray.d.y * t;
+            final double z = ray.o.z + ray.d.z * t;
+            if (lbf.x - Constants.EPSILON <= x && x <= run.x + Constants.EPSILON
+                    && lbf.y - Constants.EPSILON <= y && y <= run.y + Constants.EPSILON
+                    && lbf.z - Constants.EPSILON <= z && z <= run.z + Constants.EPSILON) {
+                return face;
             }
         }
-        return null;
+        return -1;
+    }
+
+    /**
+     * This method calculates the t at which the ray crosses the plane of a face.
+     *
+     * @param ray  The ray.
+     * @param face The index of the face.
+     * @return The t, which may be negative, infinite or NaN.
+     */
+    private double faceT(final Ray ray, final int face) {
+        final int f = face * 12;
+        final double oy = faces[f + 4] * ray.o.x + faces[f + 5] * ray.o.y + faces[f + 6] * ray.o.z + faces[f + 7];
+        final double dy = faces[f + 4] * ray.d.x + faces[f + 5] * ray.d.y + faces[f + 6] * ray.d.z;
+        return -oy / dy;
+    }
+
+    @Override
+    public BoundingBox bounds() {
+        return new BoundingBox(lbf, run);
     }
 
     @Override
@@ -124,7 +219,6 @@ public class AxisAlignedBox extends Geometry {
         return "AxisAlignedBox{" +
                 "lbf=" + lbf +
                 ", run=" + run +
-                ", planes=" + Arrays.toString(planes) +
                 "} " + super.toString();
     }
 }
\ No newline at end of file
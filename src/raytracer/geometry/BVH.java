@@ -0,0 +1,529 @@
+package raytracer.geometry;
+
+import raytracer.math.Ray;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a bounding volume hierarchy over primitives given by their bounds.
+ * The tree is split by the surface area heuristic (SAH) and stored in flat arrays in depth-first order,
+ * so the first child of a node always directly follows its parent.
+ *
+ * @author TrayRacer Team
+ */
+public class BVH {
+    /**
+     * This interface is implemented by the owner of the primitives to intersect a single primitive.
+     */
+    public interface Intersector {
+        /**
+         * This method intersects the primitive with the given index with the ray and stores the intersection in the
+         * record if it is closer than the one already stored.
+         *
+         * @param primitive The index of the primitive as given to the constructor.
+         * @param ray       The ray.
+         * @param rec       The record holding the closest intersection found so far.
+         * @return True if the record was updated.
+         */
+        boolean intersect(final int primitive, final Ray ray, final HitRecord rec);
+    }
+
+    /**
+     * This interface is implemented by the owner of the primitives to test a single primitive for occlusion.
+     */
+    public interface Occluder {
+        /**
+         * This method checks if the primitive with the given index blocks the ray before tMax.
+         *
+         * @param primitive The index of the primitive as given to the constructor.
+         * @param ray       The ray.
+         * @param tMax      The t up to which hits are searched.
+         * @return True if the primitive is hit before tMax.
+         */
+        boolean occludes(final int primitive, final Ray ray, final double tMax);
+    }
+
+    /**
+     * The number of bins for the SAH split search per axis.
+     */
+    private static final int BINS = 16;
+    /**
+     * The number of primitives a leaf may hold even if the SAH recommends a split.
+     */
+    private static final int MAX_LEAF_SIZE = 4;
+    /**
+     * The cost of traversing a node relative to the cost of intersecting a primitive.
+     */
+    private static final double TRAVERSAL_COST = 0.5;
+    /**
+     * The padding added to every node to cover the tolerances of the primitive intersections.
+     */
+    private static final double PADDING = 1e-6;
+
+    /**
+     * The primitive indices in leaf order.
+     */
+    final int[] primitives;
+    /**
+     * The bounds of the nodes, 6 values (lbf and run) per node.
+     */
+    final double[] nodeBounds;
+    /**
+     * The node data, 2 values per node. A leaf holds the offset into primitives and the (non-negative) number of
+     * primitives. An inner node holds the index of its second child and -(split axis + 1).
+     */
+    final int[] nodeData;
+    /**
+     * The number of nodes.
+     */
+    final int nodeCount;
+    /**
+     * The depth of the tree, needed for the size of the traversal stack.
+     */
+    private final int depth;
+    /**
+     * The traversal stack of each thread, so traversals do not allocate.
+     */
+    private final ThreadLocal<int[]> stacks;
+
+    /**
+     * Build helper: the bounds of the primitives.
+     */
+    private double[] primBounds;
+    /**
+     * Build helper: the centroids of the primitives.
+     */
+    private double[] centroids;
+    /**
+     * Build helper: the bounds of the nodes while growing.
+     */
+    private double[] buildBounds;
+    /**
+     * Build helper: the data of the nodes while growing.
+     */
+    private int[] buildData;
+    /**
+     * Build helper: the number of nodes created.
+     */
+    private int buildCount;
+    /**
+     * Build helper: the deepest level reached.
+     */
+    private int buildDepth;
+
+    /**
+     * This constructor builds the hierarchy for the given primitive bounds.
+     *
+     * @param bounds The finite bounds of the primitives, 6 values (lbf and run) per primitive.
+     */
+    public BVH(final double[] bounds) {
+        if (bounds == null || bounds.length % 6 != 0)
+            throw new IllegalArgumentException("Bounds must hold 6 values per primitive.");
+        final int count = bounds.length / 6;
+
+        this.primBounds = bounds;
+        this.centroids = new double[count * 3];
+        this.primitives = new int[count];
+        for (int i = 0; i < count; i++) {
+            primitives[i] = i;
+            for (int axis = 0; axis < 3; axis++) {
+                centroids[i * 3 + axis] = (bounds[i * 6 + axis] + bounds[i * 6 + 3 + axis]) * 0.5;
+            }
+        }
+        this.buildBounds = new double[Math.max(1, 2 * count - 1) * 6];
+        this.buildData = new int[Math.max(1, 2 * count - 1) * 2];
+
+        if (count > 0) build(0, count, 1);
+        else {
+            // an empty tree is a single leaf that nothing can hit
+            buildBounds[0] = buildBounds[1] = buildBounds[2] = Double.POSITIVE_INFINITY;
+            buildBounds[3] = buildBounds[4] = buildBounds[5] = Double.NEGATIVE_INFINITY;
+            buildCount = 1;
+            buildDepth = 1;
+        }
+
+        this.nodeCount = buildCount;
+        this.depth = buildDepth;
+        this.stacks = ThreadLocal.withInitial(() -> new int[depth]);
+        this.nodeBounds = Arrays.copyOf(buildBounds, buildCount * 6);
+        this.nodeData = Arrays.copyOf(buildData, buildCount * 2);
+
+        this.primBounds = null;
+        this.centroids = null;
+        this.buildBounds = null;
+        this.buildData = null;
+    }
+
+    /**
+     * This constructor restores a hierarchy built before, e.g. read from a cache file. The arrays are used as they
+     * are, not copied.
+     *
+     * @param primitives The primitive indices in leaf order.
+     * @param nodeBounds The bounds of the nodes, 6 values per node.
+     * @param nodeData   The node data, 2 values per node.
+     * @param depth      The depth of the tree.
+     */
+    BVH(final int[] primitives, final double[] nodeBounds, final int[] nodeData, final int depth) {
+        if (primitives == null || nodeBounds == null || nodeData == null)
+            throw new IllegalArgumentException("Parameters must not be null.");
+        if (nodeData.length == 0 || nodeBounds.length != nodeData.length * 3 || nodeData.length % 2 != 0)
+            throw new IllegalArgumentException("Nodes must hold 6 bounds and 2 data values each.");
+        if (depth <= 0) throw new IllegalArgumentException("Depth must be larger than 0.");
+        this.primitives = primitives;
+        this.nodeBounds = nodeBounds;
+        this.nodeData = nodeData;
+        this.nodeCount = nodeData.length / 2;
+        this.depth = depth;
+        this.stacks = ThreadLocal.withInitial(() -> new int[depth]);
+    }
+
+    /**
+     * This method builds the hierarchy over the bounds of the given geometries.
+     * The primitive indices of the hierarchy are the indices into the given array.
+     *
+     * @param geometries The geometries. Each must have finite bounds.
+     * @return The hierarchy.
+     */
+    public static BVH forGeometries(final Geometry[] geometries) {
+        if (geometries == null) throw new IllegalArgumentException("Geometries must not be null.");
+        double[] bounds = new double[geometries.length * 6];
+        for (int i = 0; i < geometries.length; i++) {
+            BoundingBox box = geometries[i].bounds();
+            if (box.isInfinite()) throw new IllegalArgumentException("Geometries must have finite bounds.");
+            bounds[i * 6] = box.lbf.x;
+            bounds[i * 6 + 1] = box.lbf.y;
+            bounds[i * 6 + 2] = box.lbf.z;
+            bounds[i * 6 + 3] = box.run.x;
+            bounds[i * 6 + 4] = box.run.y;
+            bounds[i * 6 + 5] = box.run.z;
+        }
+        return new BVH(bounds);
+    }
+
+    /**
+     * This method returns the depth of the tree.
+     *
+     * @return The depth.
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * This method traverses the hierarchy with the given ray and hands every primitive in a hit leaf to the
+     * intersector. Nodes further away than the closest intersection in the record are skipped.
+     *
+     * @param ray         The ray.
+     * @param rec         The record holding the closest intersection found so far. Its t limits the search.
+     * @param intersector The intersector for the primitives.
+     * @return True if the record was updated.
+     */
+    public boolean traverse(final Ray ray, final HitRecord rec, final Intersector intersector) {
+        if (ray == null || rec == null || intersector == null)
+            throw new IllegalArgumentException("Parameters must not be null.");
+        final double ox = ray.o.x;
+        final double oy = ray.o.y;
+        final double oz = ray.o.z;
+        final double ix = 1 / ray.d.x;
+        final double iy = 1 / ray.d.y;
+        final double iz = 1 / ray.d.z;
+
+        final int[] stack = stacks.get();
+        int stackSize = 0;
+        int node = 0;
+        boolean updated = false;
+
+        while (true) {
+            if (hitsNode(node, ox, oy, oz, ix, iy, iz, rec.t)) {
+                final int first = nodeData[node * 2];
+                final int count = nodeData[node * 2 + 1];
+                if (count >= 0) {
+                    for (int i = first; i < first + count; i++) {
+                        if (intersector.intersect(primitives[i], ray, rec)) updated = true;
+                    }
+                } else {
+                    // visit the child on the near side of the split plane first
+                    final int axis = -count - 1;
+                    final boolean negative = axis == 0 ? ix < 0 : axis == 1 ? iy < 0 : iz < 0;
+                    if (negative) {
+                        stack[stackSize++] = node + 1;
+                        node = first;
+                    } else {
+                        stack[stackSize++] = first;
+                        node = node + 1;
+                    }
+                    continue;
+                }
+            }
+            if (stackSize == 0) break;
+            node = stack[--stackSize];
+        }
+        return updated;
+    }
+
+    /**
+     * This method traverses the hierarchy with the given ray until the occluder reports the first primitive hit
+     * before tMax. The order in which primitives are visited is unspecified.
+     *
+     * @param ray      The ray.
+     * @param tMax     The t up to which hits are searched.
+     * @param occluder The occlusion test for the primitives.
+     * @return True if any primitive is hit before tMax.
+     */
+    public boolean occluded(final Ray ray, final double tMax, final Occluder occluder) {
+        if (ray == null || occluder == null) throw new IllegalArgumentException("Parameters must not be null.");
+        final double ox = ray.o.x;
+        final double oy = ray.o.y;
+        final double oz = ray.o.z;
+        final double ix = 1 / ray.d.x;
+        final double iy = 1 / ray.d.y;
+        final double iz = 1 / ray.d.z;
+
+        final int[] stack = stacks.get();
+        int stackSize = 0;
+        int node = 0;
+
+        while (true) {
+            if (hitsNode(node, ox, oy, oz, ix, iy, iz, tMax)) {
+                final int first = nodeData[node * 2];
+                final int count = nodeData[node * 2 + 1];
+                if (count >= 0) {
+                    for (int i = first; i < first + count; i++) {
+                        if (occluder.occludes(primitives[i], ray, tMax)) return true;
+                    }
+                } else {
+                    stack[stackSize++] = first;
+                    node = node + 1;
+                    continue;
+                }
+            }
+            if (stackSize == 0) return false;
+            node = stack[--stackSize];
+        }
+    }
+
+    /**
+     * This method performs the slab test of the ray against the bounds of a node.
+     *
+     * @return True if the ray enters the node before tMax.
+     */
+    private boolean hitsNode(final int node, final double ox, final double oy, final double oz,
+                             final double ix, final double iy, final double iz, final double tMax) {
+        final int b = node * 6;
+        double tNear = Double.NEGATIVE_INFINITY;
+        double tFar = Double.POSITIVE_INFINITY;
+
+        // comparisons with NaN (ray parallel to and inside a slab) leave the interval untouched
+        double t0 = (nodeBounds[b] - ox) * ix;
+        double t1 = (nodeBounds[b + 3] - ox) * ix;
+        if (t0 > t1) {
+            final double tmp = t0;
+            t0 = t1;
+            t1 = tmp;
+        }
+        if (t0 > tNear) tNear = t0;
+        if (t1 < tFar) tFar = t1;
+
+        t0 = (nodeBounds[b + 1] - oy) * iy;
+        t1 = (nodeBounds[b + 4] - oy) * iy;
+        if (t0 > t1) {
+            final double tmp = t0;
+            t0 = t1;
+            t1 = tmp;
+        }
+        if (t0 > tNear) tNear = t0;
+        if (t1 < tFar) tFar = t1;
+
+        t0 = (nodeBounds[b + 2] - oz) * iz;
+        t1 = (nodeBounds[b + 5] - oz) * iz;
+        if (t0 > t1) {
+            final double tmp = t0;
+            t0 = t1;
+            t1 = tmp;
+        }
+        if (t0 > tNear) tNear = t0;
+        if (t1 < tFar) tFar = t1;
+
+        return tNear <= tFar && tFar >= 0 && tNear < tMax;
+    }
+
+    /**
+     * This method recursively builds the node for the primitives in the range [start, end).
+     *
+     * @param start The first primitive.
+     * @param end   The primitive after the last.
+     * @param level The depth of the node.
+     * @return The index of the created node.
+     */
+    private int build(final int start, final int end, final int level) {
+        final int node = buildCount++;
+        if (level > buildDepth) buildDepth = level;
+        final int count = end - start;
+
+        // node bounds and centroid bounds
+        final double[] cMin = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        final double[] cMax = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        final int b = node * 6;
+        for (int axis = 0; axis < 3; axis++) {
+            buildBounds[b + axis] = Double.POSITIVE_INFINITY;
+            buildBounds[b + 3 + axis] = Double.NEGATIVE_INFINITY;
+        }
+        for (int i = start; i < end; i++) {
+            final int p = primitives[i];
+            for (int axis = 0; axis < 3; axis++) {
+                buildBounds[b + axis] = Math.min(buildBounds[b + axis], primBounds[p * 6 + axis]);
+                buildBounds[b + 3 + axis] = Math.max(buildBounds[b + 3 + axis], primBounds[p * 6 + 3 + axis]);
+                cMin[axis] = Math.min(cMin[axis], centroids[p * 3 + axis]);
+                cMax[axis] = Math.max(cMax[axis], centroids[p * 3 + axis]);
+            }
+        }
+        for (int axis = 0; axis < 3; axis++) {
+            buildBounds[b + axis] -= PADDING;
+            buildBounds[b + 3 + axis] += PADDING;
+        }
+
+        if (count == 1) return leaf(node, start, count);
+
+        // binned SAH split search
+        final double nodeArea = area(buildBounds, b);
+        int bestAxis = -1;
+        int bestBin = -1;
+        double bestCost = Double.POSITIVE_INFINITY;
+        final int[] binCounts = new int[BINS];
+        final double[] binBounds = new double[BINS * 6];
+        final double[] rightArea = new double[BINS];
+        final int[] rightCount = new int[BINS];
+        final double[] acc = new double[6];
+
+        for (int axis = 0; axis < 3; axis++) {
+            final double extent = cMax[axis] - cMin[axis];
+            if (extent <= 0) continue;
+            Arrays.fill(binCounts, 0);
+            for (int bin = 0; bin < BINS; bin++) empty(binBounds, bin * 6);
+
+            for (int i = start; i < end; i++) {
+                final int p = primitives[i];
+                final int bin = binOf(centroids[p * 3 + axis], cMin[axis], extent);
+                binCounts[bin]++;
+                grow(binBounds, bin * 6, primBounds, p * 6);
+            }
+
+            // sweep from the right to collect the costs of the right sides
+            empty(acc, 0);
+            int n = 0;
+            for (int bin = BINS - 1; bin > 0; bin--) {
+                grow(acc, 0, binBounds, bin * 6);
+                n += binCounts[bin];
+                rightArea[bin] = area(acc, 0);
+                rightCount[bin] = n;
+            }
+            // sweep from the left and evaluate the split in front of each bin
+            empty(acc, 0);
+            n = 0;
+            for (int bin = 1; bin < BINS; bin++) {
+                grow(acc, 0, binBounds, (bin - 1) * 6);
+                n += binCounts[bin - 1];
+                if (n == 0 || rightCount[bin] == 0) continue;
+                final double cost = TRAVERSAL_COST * nodeArea + area(acc, 0) * n + rightArea[bin] * rightCount[bin];
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestBin = bin;
+                }
+            }
+        }
+
+        int mid;
+        if (bestAxis < 0) {
+            // all centroids coincide, no split can separate them
+            if (count <= MAX_LEAF_SIZE) return leaf(node, start, count);
+            mid = start + count / 2;
+            bestAxis = 0;
+        } else {
+            if (count <= MAX_LEAF_SIZE && bestCost >= nodeArea * count) return leaf(node, start, count);
+            final double extent = cMax[bestAxis] - cMin[bestAxis];
+            int left = start;
+            int right = end - 1;
+            while (left <= right) {
+                if (binOf(centroids[primitives[left] * 3 + bestAxis], cMin[bestAxis], extent) < bestBin) {
+                    left++;
+                } else {
+                    final int tmp = primitives[left];
+                    primitives[left] = primitives[right];
+                    primitives[right] = tmp;
+                    right--;
+                }
+            }
+            mid = left;
+        }
+
+        build(start, mid, level + 1);
+        final int second = build(mid, end, level + 1);
+        buildData[node * 2] = second;
+        buildData[node * 2 + 1] = -(bestAxis + 1);
+        return node;
+    }
+
+    /**
+     * This method turns a node into a leaf.
+     *
+     * @return The index of the node.
+     */
+    private int leaf(final int node, final int start, final int count) {
+        buildData[node * 2] = start;
+        buildData[node * 2 + 1] = count;
+        return node;
+    }
+
+    /**
+     * This method computes the bin of a centroid.
+     *
+     * @return The bin in the range [0, BINS).
+     */
+    private static int binOf(final double centroid, final double min, final double extent) {
+        final int bin = (int) (BINS * (centroid - min) / extent);
+        return Math.min(BINS - 1, Math.max(0, bin));
+    }
+
+    /**
+     * This method resets the bounds at the given offset to an empty box.
+     */
+    private static void empty(final double[] bounds, final int offset) {
+        for (int axis = 0; axis < 3; axis++) {
+            bounds[offset + axis] = Double.POSITIVE_INFINITY;
+            bounds[offset + 3 + axis] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * This method grows the bounds at the given offset to contain the other bounds.
+     */
+    private static void grow(final double[] bounds, final int offset, final double[] other, final int otherOffset) {
+        for (int axis = 0; axis < 3; axis++) {
+            bounds[offset + axis] = Math.min(bounds[offset + axis], other[otherOffset + axis]);
+            bounds[offset + 3 + axis] = Math.max(bounds[offset + 3 + axis], other[otherOffset + 3 + axis]);
+        }
+    }
+
+    /**
+     * This method computes the surface area of the bounds at the given offset.
+     *
+     * @return The surface area or 0 for an empty box.
+     */
+    private static double area(final double[] bounds, final int offset) {
+        final double x = bounds[offset + 3] - bounds[offset];
+        final double y = bounds[offset + 4] - bounds[offset + 1];
+        final double z = bounds[offset + 5] - bounds[offset + 2];
+        if (x < 0 || y < 0 || z < 0) return 0;
+        return 2 * (x * y + y * z + z * x);
+    }
+
+    @Override
+    public String toString() {
+        return "BVH{" +
+                "primitives=" + primitives.length +
+                ", nodes=" + nodeCount +
+                ", depth=" + depth +
+                '}';
+    }
+}
@@ -0,0 +1,114 @@
+package raytracer.geometry;
+
+import raytracer.math.Mat4x4;
+import raytracer.math.Point3;
+
+/**
+ * This class represents an axis aligned bounding box. Instances of this class are immutable.
+ * Each method creates a new object containing the result.
+ *
+ * @author TrayRacer Team
+ */
+public class BoundingBox {
+    /**
+     * The bounding box of geometries without finite extent, e.g. a Plane.
+     */
+    public static final BoundingBox INFINITE = new BoundingBox(
+            new Point3(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY),
+            new Point3(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY));
+    /**
+     * The left-bottom-far Point of the box.
+     */
+    public final Point3 lbf;
+    /**
+     * The right-up-near Point of the box.
+     */
+    public final Point3 run;
+
+    /**
+     * This constructor creates a new bounding box out of the 2 Points.
+     * Each value of the Point lbf must not be larger than the corresponding value of the Point run.
+     *
+     * @param lbf The left-bottom-far Point of the box.
+     * @param run The right-up-near Point of the box.
+     */
+    public BoundingBox(final Point3 lbf, final Point3 run) {
+        if (lbf == null || run == null) throw new IllegalArgumentException("Parameters must not be null.");
+        if (lbf.x > run.x || lbf.y > run.y || lbf.z > run.z)
+            throw new IllegalArgumentException("Each value of the Point lbf must not be larger than the corresponding value of the Point run.");
+        this.lbf = lbf;
+        this.run = run;
+    }
+
+    /**
+     * This method returns the smallest bounding box containing this box and the given box.
+     *
+     * @param b The other box.
+     * @return The union of the two boxes.
+     */
+    public BoundingBox union(final BoundingBox b) {
+        if (b == null) throw new IllegalArgumentException("BoundingBox must not be null.");
+        return new BoundingBox(new Point3(Math.min(lbf.x, b.lbf.x), Math.min(lbf.y, b.lbf.y), Math.min(lbf.z, b.lbf.z)),
+                new Point3(Math.max(run.x, b.run.x), Math.max(run.y, b.run.y), Math.max(run.z, b.run.z)));
+    }
+
+    /**
+     * This method returns the smallest bounding box containing this box transformed by the given matrix.
+     *
+     * @param m The transformation matrix.
+     * @return The transformed box.
+     */
+    public BoundingBox mul(final Mat4x4 m) {
+        if (m == null) throw new IllegalArgumentException("Matrix must not be null.");
+        if (isInfinite()) return INFINITE;
+        final double[] min = {m.m14, m.m24, m.m34};
+        final double[] max = {m.m14, m.m24, m.m34};
+        final double[][] rows = {{m.m11, m.m12, m.m13}, {m.m21, m.m22, m.m23}, {m.m31, m.m32, m.m33}};
+        final double[] lo = {lbf.x, lbf.y, lbf.z};
+        final double[] hi = {run.x, run.y, run.z};
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                final double a = rows[i][j] * lo[j];
+                final double b = rows[i][j] * hi[j];
+                min[i] += Math.min(a, b);
+                max[i] += Math.max(a, b);
+            }
+        }
+        return new BoundingBox(new Point3(min[0], min[1], min[2]), new Point3(max[0], max[1], max[2]));
+    }
+
+    /**
+     * This method checks if the box is unbounded in any direction.
+     *
+     * @return True if the box has no finite extent.
+     */
+    public boolean isInfinite() {
+        return Double.isInfinite(lbf.x) || Double.isInfinite(lbf.y) || Double.isInfinite(lbf.z)
+                || Double.isInfinite(run.x) || Double.isInfinite(run.y) || Double.isInfinite(run.z);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        BoundingBox that = (BoundingBox) o;
+
+        return lbf.equals(that.lbf) && run.equals(that.run);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = lbf.hashCode();
+        result = 31 * result + run.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{" +
+                "lbf=" + lbf +
+                ", run=" + run +
+                '}';
+    }
+}
@@ -0,0 +1,30 @@
+package raytracer.geometry;
+
+import raytracer.math.Ray;
+
+/**
+ * This class intersects the geometries of a bounding volume hierarchy while it is traversed and keeps the closest
+ * intersection in the given record. It keeps no state, so one instance can be shared by all threads.
+ *
+ * @author TrayRacer Team
+ */
+class ClosestHit implements BVH.Intersector {
+    /**
+     * The geometries indexed by the primitives of the hierarchy.
+     */
+    private final Geometry[] geometries;
+
+    /**
+     * This constructor creates a closest hit search over the given geometries.
+     *
+     * @param geometries The geometries indexed by the primitives of the hierarchy.
+     */
+    ClosestHit(final Geometry[] geometries) {
+        this.geometries = geometries;
+    }
+
+    @Override
+    public boolean intersect(final int primitive, final Ray ray, final HitRecord rec) {
+        return geometries[primitive].intersect(ray, rec);
+    }
+}
@@ -66,11 +66,22 @@ public class Disc extends Geometry {
         if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
         double t = ((c.sub(ray.o)).dot(n)) / ((ray.d).dot(n));
         if (t > Constants.EPSILON && ray.at(t).sub(c).dot(ray.at(t).sub(c)) <= Math.pow(radius, 2)) {
-            return new Hit(t, ray, this.material, n, TextureUtils.getPlaneTexCoord(ray, t, n, textureScalar));
+            final double footprint = TextureUtils.footprint(ray, t, n) / textureScalar;
+            return new Hit(t, ray, this.material, n, TextureUtils.getPlaneTexCoord(ray, t, n, textureScalar), footprint, footprint);
         }
         return null;
     }
 
+    @Override
+    public BoundingBox bounds() {
+        final double l = Math.sqrt(n.x * n.x + n.y * n.y + n.z * n.z);
+        final double r = Math.abs(radius);
+        final double ex = r * Math.sqrt(Math.max(0, 1 - (n.x / l) * (n.x / l)));
+        final double ey = r * Math.sqrt(Math.max(0, 1 - (n.y / l) * (n.y / l)));
+        final double ez = r * Math.sqrt(Math.max(0, 1 - (n.z / l) * (n.z / l)));
+        return new BoundingBox(new Point3(c.x - ex, c.y - ey, c.z - ez), new Point3(c.x + ex, c.y + ey, c.z + ez));
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
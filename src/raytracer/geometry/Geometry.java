@@ -1,6 +1,7 @@
 package raytracer.geometry;
 
 import raytracer.material.Material;
+import raytracer.math.Constants;
 import raytracer.math.Ray;
 
 /**
@@ -31,6 +32,56 @@ public abstract class Geometry {
      */
     public abstract Hit hit(final Ray r);
 
+    /**
+     * This method intersects the geometry with the ray and stores the intersection in the record if it is closer than
+     * the one already stored. Geometries should override it to store only t and their surface parameters and build
+     * the Hit later in createHit. The default implementation stores the complete Hit.
+     *
+     * @param r   The ray.
+     * @param rec The record holding the closest intersection found so far.
+     * @return True if the record was updated.
+     */
+    public boolean intersect(final Ray r, final HitRecord rec) {
+        final Hit hit = hit(r);
+        if (hit == null || !(hit.t < rec.t)) return false;
+        rec.set(hit.t, this, 0, 0, 0);
+        rec.hit = hit;
+        return true;
+    }
+
+    /**
+     * This method creates the Hit for an intersection this geometry has stored in the record.
+     *
+     * @param r   The ray the record was filled for.
+     * @param rec The record.
+     * @return The Hit.
+     */
+    public Hit createHit(final Ray r, final HitRecord rec) {
+        return rec.hit;
+    }
+
+    /**
+     * This method checks if the ray hits the geometry with a t between Constants.EPSILON and tMax.
+     * Unlike hit it does not need to compute the normal or texture coordinates, so geometries should override it
+     * with a test that does not allocate.
+     *
+     * @param r    The ray.
+     * @param tMax The t up to which hits are searched.
+     * @return True if the geometry is hit before tMax.
+     */
+    public boolean occludes(final Ray r, final double tMax) {
+        final Hit hit = hit(r);
+        return hit != null && Constants.EPSILON < hit.t && hit.t < tMax;
+    }
+
+    /**
+     * This method returns the smallest axis aligned box containing the geometry. Geometries without finite extent,
+     * e.g. a Plane, return {@link BoundingBox#INFINITE} and are kept out of acceleration structures.
+     *
+     * @return The bounding box of the geometry.
+     */
+    public abstract BoundingBox bounds();
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
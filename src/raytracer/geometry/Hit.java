@@ -31,6 +31,14 @@ public class Hit {
      * The coordinates for texture.
      */
     public final TexCoord2 coord;
+    /**
+     * The width of the ray cone at the hit along the u texture coordinate. 0 for a point sample.
+     */
+    public final double footprintU;
+    /**
+     * The width of the ray cone at the hit along the v texture coordinate. 0 for a point sample.
+     */
+    public final double footprintV;
 
     /**
      * This constructor creates a new hit of a ray with a geometry at a given t.
@@ -42,6 +50,23 @@ public class Hit {
      * @param coord    The TextureCoordinates.
      */
     public Hit(final double t, final Ray ray, final Material material, final Normal3 normal, final TexCoord2 coord) {
+        this(t, ray, material, normal, coord, 0, 0);
+    }
+
+    /**
+     * This constructor creates a new hit of a ray with a geometry at a given t with the footprint of the ray cone
+     * in texture coordinates, which selects the resolution the textures are sampled at.
+     *
+     * @param t          The t.
+     * @param ray        The hit.
+     * @param material   The material.
+     * @param normal     The normal.
+     * @param coord      The TextureCoordinates.
+     * @param footprintU The width of the ray cone along u.
+     * @param footprintV The width of the ray cone along v.
+     */
+    public Hit(final double t, final Ray ray, final Material material, final Normal3 normal, final TexCoord2 coord,
+               final double footprintU, final double footprintV) {
         if (ray == null || material == null || normal == null)
             throw new IllegalArgumentException("Parameters must not be null.");
         this.t = t;
@@ -49,6 +74,8 @@ public class Hit {
         this.material = material;
         this.normal = normal;
         this.coord = coord;
+        this.footprintU = footprintU;
+        this.footprintV = footprintV;
     }
 
     @Override
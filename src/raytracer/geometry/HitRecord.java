@@ -0,0 +1,159 @@
+package raytracer.geometry;
+
+import raytracer.math.Ray;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the closest intersection found so far while a ray is tested against several geometries.
+ * Unlike Hit it is mutable and meant to be reused, so the candidates only write a few numbers and the Hit with its
+ * normal and texture coordinates is created once for the winning geometry.
+ *
+ * @author TrayRacer Team
+ */
+public class HitRecord {
+    /**
+     * The t of the closest intersection, positive infinity if nothing has been hit.
+     */
+    public double t;
+    /**
+     * The geometry of the closest intersection or null if nothing has been hit.
+     */
+    public Geometry geometry;
+    /**
+     * The index of the hit primitive inside the geometry, e.g. the triangle of a mesh. 0 for simple geometries.
+     */
+    public int primitive;
+    /**
+     * The first surface parameter of the intersection, e.g. the barycentric coordinate beta of a triangle.
+     */
+    public double u;
+    /**
+     * The second surface parameter of the intersection, e.g. the barycentric coordinate gamma of a triangle.
+     */
+    public double v;
+    /**
+     * The complete Hit for geometries that create it during the intersection, otherwise null.
+     */
+    public Hit hit;
+    /**
+     * The surface parameters of the last candidate tested, written by intersection helpers before it is known
+     * whether the candidate is closer.
+     */
+    double candidateU, candidateV;
+    /**
+     * The nodes the ray is currently tested inside, outermost first. Only the first nodeCount entries are used.
+     * Created by the first node, so records of geometries outside nodes allocate nothing else.
+     */
+    private Node[] nodes;
+    /**
+     * The number of nodes the ray is currently tested inside.
+     */
+    private int nodeCount;
+    /**
+     * The nodes around the closest intersection, outermost first. The geometry is a child of the last one.
+     */
+    private Node[] hitNodes;
+    /**
+     * The number of nodes around the closest intersection.
+     */
+    private int hitNodeCount;
+
+    /**
+     * This constructor creates an empty record.
+     */
+    public HitRecord() {
+        reset();
+    }
+
+    /**
+     * This method empties the record so it can be used for the next ray.
+     *
+     * @return This record.
+     */
+    public HitRecord reset() {
+        t = Double.POSITIVE_INFINITY;
+        geometry = null;
+        primitive = 0;
+        u = 0;
+        v = 0;
+        hit = null;
+        nodeCount = 0;
+        hitNodeCount = 0;
+        return this;
+    }
+
+    /**
+     * This method stores a new closest intersection.
+     *
+     * @param t         The t of the intersection.
+     * @param geometry  The hit geometry.
+     * @param primitive The index of the hit primitive inside the geometry.
+     * @param u         The first surface parameter.
+     * @param v         The second surface parameter.
+     */
+    public void set(final double t, final Geometry geometry, final int primitive, final double u, final double v) {
+        this.t = t;
+        this.geometry = geometry;
+        this.primitive = primitive;
+        this.u = u;
+        this.v = v;
+        this.hit = null;
+        hitNodeCount = nodeCount;
+        if (nodeCount == 0) return;
+        if (hitNodes == null || hitNodes.length < nodeCount) hitNodes = new Node[nodes.length];
+        System.arraycopy(nodes, 0, hitNodes, 0, nodeCount);
+    }
+
+    /**
+     * This method is called by a node before it tests its children, so intersections stored by them remember the
+     * node and their Hit is transformed back by it.
+     *
+     * @param node The node.
+     */
+    void enter(final Node node) {
+        if (nodes == null) nodes = new Node[4];
+        else if (nodeCount == nodes.length) nodes = Arrays.copyOf(nodes, 2 * nodeCount);
+        nodes[nodeCount++] = node;
+    }
+
+    /**
+     * This method is called by a node after it has tested its children.
+     */
+    void leave() {
+        nodeCount--;
+    }
+
+    /**
+     * This method creates the Hit for the closest intersection.
+     *
+     * @param ray The ray the record was filled for.
+     * @return The Hit or null if nothing has been hit.
+     */
+    public Hit createHit(final Ray ray) {
+        if (geometry == null) return null;
+        return createHit(ray, 0);
+    }
+
+    /**
+     * This method creates the Hit for the closest intersection inside the given number of surrounding nodes.
+     *
+     * @param ray   The ray in the space of the nodes outside the level.
+     * @param level The number of nodes whose transformation is already applied to the ray.
+     * @return The Hit in the space of the ray.
+     */
+    Hit createHit(final Ray ray, final int level) {
+        return level < hitNodeCount ? hitNodes[level].createHit(ray, this, level) : geometry.createHit(ray, this);
+    }
+
+    @Override
+    public String toString() {
+        return "HitRecord{" +
+                "t=" + t +
+                ", geometry=" + geometry +
+                ", primitive=" + primitive +
+                ", u=" + u +
+                ", v=" + v +
+                '}';
+    }
+}
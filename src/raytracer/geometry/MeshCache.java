@@ -0,0 +1,338 @@
+package raytracer.geometry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class stores parsed meshes together with their bounding volume hierarchy in a binary file, so a model is
+ * parsed and its hierarchy built only once. A cache file belongs to one .obj file and is only used while the size
+ * and modification time of the .obj file are the ones it was written for.
+ * <p>
+ * The cache files are kept in the directory given by -Draytracer.meshCache=dir, by default trayracer-mesh-cache in
+ * the temporary directory. An empty value turns the cache off.
+ * <p>
+ * The file holds a header followed by the flat arrays of the MeshData and the BVH, little endian:
+ * <pre>
+ * int    magic, version
+ * long   size and modification time of the .obj file
+ * int    number of position, texture coordinate, normal and corner values, primitives, nodes, tree depth, 0
+ * double positions, texture coordinates, normals
+ * int    corner position, texture coordinate and normal indices
+ * int    primitives in leaf order
+ * double node bounds
+ * int    node data
+ * </pre>
+ *
+ * @author TrayRacer Team
+ */
+public class MeshCache {
+    /**
+     * The directory of the cache files or null if the cache is turned off.
+     */
+    public static final File DIRECTORY = directory(System.getProperty("raytracer.meshCache",
+            new File(System.getProperty("java.io.tmpdir"), "trayracer-mesh-cache").getPath()));
+    /**
+     * The first bytes of a cache file, "TRMC".
+     */
+    private static final int MAGIC = 0x54524D43;
+    /**
+     * The version of the format. Files of other versions are ignored.
+     */
+    private static final int VERSION = 1;
+    /**
+     * The size of the header in bytes.
+     */
+    private static final int HEADER_SIZE = 2 * 4 + 2 * 8 + 8 * 4;
+    /**
+     * The size of the buffer the cache files are written through.
+     */
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * This class is not meant to be instantiated.
+     */
+    private MeshCache() {
+    }
+
+    /**
+     * This class is a mesh read from a cache file together with its hierarchy.
+     */
+    public static class Entry {
+        /**
+         * The mesh.
+         */
+        public final MeshData mesh;
+        /**
+         * The hierarchy over the triangles of the mesh.
+         */
+        public final BVH bvh;
+
+        /**
+         * This constructor creates an entry.
+         *
+         * @param mesh The mesh.
+         * @param bvh  The hierarchy over the triangles of the mesh.
+         */
+        public Entry(final MeshData mesh, final BVH bvh) {
+            if (mesh == null || bvh == null) throw new IllegalArgumentException("Parameters must not be null.");
+            this.mesh = mesh;
+            this.bvh = bvh;
+        }
+    }
+
+    /**
+     * This method turns the value of the property into the directory.
+     *
+     * @param path The value of the property.
+     * @return The directory or null if the value is empty.
+     */
+    private static File directory(final String path) {
+        return path == null || path.isEmpty() ? null : new File(path);
+    }
+
+    /**
+     * This method returns the cache file of an .obj file. Its name holds the name of the .obj file and a hash of its
+     * absolute path, so equally named models from different directories do not overwrite each other.
+     *
+     * @param objFile The .obj file.
+     * @return The cache file.
+     */
+    public static File cacheFile(final File objFile) {
+        if (objFile == null) throw new IllegalArgumentException("File must not be null.");
+        if (DIRECTORY == null) throw new IllegalStateException("The mesh cache is turned off.");
+        final String path = objFile.getAbsolutePath();
+        return new File(DIRECTORY, objFile.getName() + "-" + Integer.toHexString(path.hashCode()) + ".mesh");
+    }
+
+    /**
+     * This method reads the cached mesh of an .obj file. The file is memory mapped and the arrays are filled with
+     * bulk copies, nothing is parsed.
+     *
+     * @param objFile The .obj file.
+     * @return The mesh and its hierarchy or null if there is no valid cache file.
+     */
+    public static Entry read(final File objFile) {
+        if (objFile == null) throw new IllegalArgumentException("File must not be null.");
+        if (DIRECTORY == null) return null;
+        final File file = cacheFile(objFile);
+        if (!file.isFile()) return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < HEADER_SIZE) return null;
+            final MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            if (map.getInt() != MAGIC || map.getInt() != VERSION) return null;
+            if (map.getLong() != objFile.length() || map.getLong() != objFile.lastModified()) return null;
+
+            final int positions = map.getInt();
+            final int texCoords = map.getInt();
+            final int normals = map.getInt();
+            final int corners = map.getInt();
+            final int primitives = map.getInt();
+            final int nodes = map.getInt();
+            final int depth = map.getInt();
+            // padding, so the arrays start at a multiple of 8 bytes
+            map.getInt();
+            if (positions < 0 || texCoords < 0 || normals < 0 || corners < 0 || primitives < 0 || nodes <= 0 || depth <= 0)
+                return null;
+            final long expected = HEADER_SIZE + 8L * (positions + texCoords + normals) + 4L * 3 * corners
+                    + 4L * primitives + 8L * 6 * nodes + 4L * 2 * nodes;
+            if (size != expected) return null;
+
+            final MeshData mesh = new MeshData(doubles(map, positions), doubles(map, texCoords), doubles(map, normals),
+                    ints(map, corners), ints(map, corners), ints(map, corners));
+            final int[] primitiveIndices = ints(map, primitives);
+            final double[] nodeBounds = doubles(map, 6 * nodes);
+            final int[] nodeData = ints(map, 2 * nodes);
+            // the indices are checked once here, a damaged file would otherwise fail while rendering
+            if (!valid(mesh) || !valid(primitiveIndices, nodeData, mesh.getTriangleCount(), depth)) return null;
+            return new Entry(mesh, new BVH(primitiveIndices, nodeBounds, nodeData, depth));
+        } catch (IOException | RuntimeException e) {
+            // a broken cache file is treated like a missing one, the model is parsed again
+            return null;
+        }
+    }
+
+    /**
+     * This method checks that all corner indices of a mesh point into its arrays.
+     *
+     * @param mesh The mesh.
+     * @return True if all indices are in range.
+     */
+    private static boolean valid(final MeshData mesh) {
+        final int positions = mesh.positions.length / 3, texCoords = mesh.texCoords.length / 2, normals = mesh.normals.length / 3;
+        for (int i = 0; i < mesh.triangles.length; i++) {
+            if (mesh.triangles[i] < 0 || mesh.triangles[i] >= positions) return false;
+            final int t = mesh.triangleTexCoords[i], n = mesh.triangleNormals[i];
+            if (t != MeshData.NONE && (t < 0 || t >= texCoords)) return false;
+            if (n != MeshData.NONE && (n < 0 || n >= normals)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * This method checks that a hierarchy read from a file is a tree over the given number of triangles that fits
+     * into the traversal stack of its depth: leaves point into the primitives, inner nodes have a valid split axis
+     * and children behind them.
+     *
+     * @param primitives The primitive indices in leaf order.
+     * @param nodeData   The node data, 2 values per node.
+     * @param triangles  The number of triangles of the mesh.
+     * @param depth      The depth of the tree.
+     * @return True if the hierarchy can be traversed safely.
+     */
+    private static boolean valid(final int[] primitives, final int[] nodeData, final int triangles, final int depth) {
+        for (int primitive : primitives) {
+            if (primitive < 0 || primitive >= triangles) return false;
+        }
+        final int nodes = nodeData.length / 2;
+        // the children are stored behind their parent, so the levels are known when a node is reached
+        final int[] levels = new int[nodes];
+        levels[0] = 1;
+        for (int node = 0; node < nodes; node++) {
+            if (levels[node] == 0 || levels[node] > depth) return false;
+            final int first = nodeData[node * 2];
+            final int count = nodeData[node * 2 + 1];
+            if (count >= 0) {
+                if (first < 0 || first > primitives.length - count) return false;
+            } else {
+                if (count < -3 || node + 1 >= nodes || first <= node + 1 || first >= nodes) return false;
+                levels[node + 1] = Math.max(levels[node + 1], levels[node] + 1);
+                levels[first] = Math.max(levels[first], levels[node] + 1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method writes the cache file of an .obj file. The file is written next to its final place and moved
+     * there, so readers never see half a file. Errors are ignored, the cache is then simply missing.
+     *
+     * @param objFile The .obj file.
+     * @param mesh    The mesh parsed from the .obj file.
+     * @param bvh     The hierarchy over the triangles of the mesh.
+     * @return True if the file was written.
+     */
+    public static boolean write(final File objFile, final MeshData mesh, final BVH bvh) {
+        if (objFile == null || mesh == null || bvh == null) throw new IllegalArgumentException("Parameters must not be null.");
+        if (DIRECTORY == null) return false;
+        final File file = cacheFile(objFile);
+        Path temp = null;
+        try {
+            Files.createDirectories(DIRECTORY.toPath());
+            temp = Files.createTempFile(DIRECTORY.toPath(), file.getName(), ".tmp");
+            // written through a buffer and not a mapping: a mapped file can not be moved on Windows until the
+            // mapping is garbage collected
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).putInt(VERSION);
+                buffer.putLong(objFile.length()).putLong(objFile.lastModified());
+                buffer.putInt(mesh.positions.length).putInt(mesh.texCoords.length).putInt(mesh.normals.length)
+                        .putInt(mesh.triangles.length).putInt(bvh.primitives.length).putInt(bvh.nodeCount).putInt(bvh.getDepth()).putInt(0);
+                put(channel, buffer, mesh.positions);
+                put(channel, buffer, mesh.texCoords);
+                put(channel, buffer, mesh.normals);
+                put(channel, buffer, mesh.triangles);
+                put(channel, buffer, mesh.triangleTexCoords);
+                put(channel, buffer, mesh.triangleNormals);
+                put(channel, buffer, bvh.primitives);
+                put(channel, buffer, bvh.nodeBounds);
+                put(channel, buffer, bvh.nodeData);
+                flush(channel, buffer);
+                channel.force(false);
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            if (temp != null) temp.toFile().delete();
+            return false;
+        }
+    }
+
+    /**
+     * This method adds doubles to the buffer, writing it to the channel whenever it is full.
+     *
+     * @param channel The channel.
+     * @param buffer  The buffer, little endian.
+     * @param values  The doubles.
+     * @throws IOException If the channel can not be written.
+     */
+    private static void put(final FileChannel channel, final ByteBuffer buffer, final double[] values) throws IOException {
+        int i = 0;
+        while (i < values.length) {
+            if (buffer.remaining() < 8) flush(channel, buffer);
+            final int count = Math.min(buffer.remaining() / 8, values.length - i);
+            buffer.asDoubleBuffer().put(values, i, count);
+            buffer.position(buffer.position() + 8 * count);
+            i += count;
+        }
+    }
+
+    /**
+     * This method adds ints to the buffer, writing it to the channel whenever it is full.
+     *
+     * @param channel The channel.
+     * @param buffer  The buffer, little endian.
+     * @param values  The ints.
+     * @throws IOException If the channel can not be written.
+     */
+    private static void put(final FileChannel channel, final ByteBuffer buffer, final int[] values) throws IOException {
+        int i = 0;
+        while (i < values.length) {
+            if (buffer.remaining() < 4) flush(channel, buffer);
+            final int count = Math.min(buffer.remaining() / 4, values.length - i);
+            buffer.asIntBuffer().put(values, i, count);
+            buffer.position(buffer.position() + 4 * count);
+            i += count;
+        }
+    }
+
+    /**
+     * This method writes the content of the buffer to the channel and empties it.
+     *
+     * @param channel The channel.
+     * @param buffer  The buffer.
+     * @throws IOException If the channel can not be written.
+     */
+    private static void flush(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * This method copies doubles out of the buffer and moves its position behind them.
+     *
+     * @param buffer The buffer.
+     * @param count  The number of doubles.
+     * @return The doubles.
+     */
+    private static double[] doubles(final ByteBuffer buffer, final int count) {
+        final double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + 8 * count);
+        return values;
+    }
+
+    /**
+     * This method copies ints out of the buffer and moves its position behind them.
+     *
+     * @param buffer The buffer.
+     * @param count  The number of ints.
+     * @return The ints.
+     */
+    private static int[] ints(final ByteBuffer buffer, final int count) {
+        final int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * count);
+        return values;
+    }
+}
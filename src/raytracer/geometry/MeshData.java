@@ -0,0 +1,123 @@
+package raytracer.geometry;
+
+import raytracer.math.Normal3;
+import raytracer.math.Point3;
+
+/**
+ * This class holds a triangle mesh as flat arrays, the way it is read from a file. The vertex attributes are stored
+ * in separate arrays and each triangle refers to them by index, so every attribute is reached in constant time.
+ *
+ * @author TrayRacer Team
+ */
+public class MeshData {
+    /**
+     * The index of a triangle corner without texture coordinates or normal.
+     */
+    public static final int NONE = -1;
+    /**
+     * The positions of the vertices, x, y and z for each.
+     */
+    public final double[] positions;
+    /**
+     * The texture coordinates, u and v for each.
+     */
+    public final double[] texCoords;
+    /**
+     * The normals, x, y and z for each.
+     */
+    public final double[] normals;
+    /**
+     * The indices of the positions of the corners, 3 for each triangle.
+     */
+    public final int[] triangles;
+    /**
+     * The indices of the texture coordinates of the corners, 3 for each triangle. NONE for corners without.
+     */
+    public final int[] triangleTexCoords;
+    /**
+     * The indices of the normals of the corners, 3 for each triangle. NONE for corners without.
+     */
+    public final int[] triangleNormals;
+
+    /**
+     * This constructor creates a mesh out of the given arrays. The arrays are used as they are, not copied.
+     *
+     * @param positions         The positions of the vertices, x, y and z for each.
+     * @param texCoords         The texture coordinates, u and v for each.
+     * @param normals           The normals, x, y and z for each.
+     * @param triangles         The indices of the positions of the corners, 3 for each triangle.
+     * @param triangleTexCoords The indices of the texture coordinates of the corners, 3 for each triangle.
+     * @param triangleNormals   The indices of the normals of the corners, 3 for each triangle.
+     */
+    public MeshData(final double[] positions, final double[] texCoords, final double[] normals,
+                    final int[] triangles, final int[] triangleTexCoords, final int[] triangleNormals) {
+        if (positions == null || texCoords == null || normals == null || triangles == null || triangleTexCoords == null || triangleNormals == null)
+            throw new IllegalArgumentException("Parameters must not be null.");
+        if (positions.length % 3 != 0 || texCoords.length % 2 != 0 || normals.length % 3 != 0 || triangles.length % 3 != 0)
+            throw new IllegalArgumentException("Arrays must hold whole vertices and triangles.");
+        if (triangleTexCoords.length != triangles.length || triangleNormals.length != triangles.length)
+            throw new IllegalArgumentException("Each corner must have a texture coordinate and a normal index.");
+        this.positions = positions;
+        this.texCoords = texCoords;
+        this.normals = normals;
+        this.triangles = triangles;
+        this.triangleTexCoords = triangleTexCoords;
+        this.triangleNormals = triangleNormals;
+    }
+
+    /**
+     * This method returns the number of vertex positions.
+     *
+     * @return The number of positions.
+     */
+    public int getVertexCount() {
+        return positions.length / 3;
+    }
+
+    /**
+     * This method returns the number of texture coordinates.
+     *
+     * @return The number of texture coordinates.
+     */
+    public int getTexCoordCount() {
+        return texCoords.length / 2;
+    }
+
+    /**
+     * This method returns the number of normals.
+     *
+     * @return The number of normals.
+     */
+    public int getNormalCount() {
+        return normals.length / 3;
+    }
+
+    /**
+     * This method returns the number of triangles.
+     *
+     * @return The number of triangles.
+     */
+    public int getTriangleCount() {
+        return triangles.length / 3;
+    }
+
+    /**
+     * This method creates the Point of a vertex.
+     *
+     * @param i The index of the vertex.
+     * @return The Point.
+     */
+    public Point3 getPosition(final int i) {
+        return new Point3(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2]);
+    }
+
+    /**
+     * This method creates a normal.
+     *
+     * @param i The index of the normal.
+     * @return The normal.
+     */
+    public Normal3 getNormal(final int i) {
+        return new Normal3(normals[3 * i], normals[3 * i + 1], normals[3 * i + 2]);
+    }
+}
@@ -3,10 +3,10 @@ package raytracer.geometry;
 import raytracer.material.Material;
 import raytracer.material.NoMaterial;
 import raytracer.math.Normal3;
+import raytracer.math.Point3;
 import raytracer.math.Ray;
 import raytracer.math.Transform;
 
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -41,35 +41,61 @@ public class Node extends Geometry {
     @Override
     public Hit hit(final Ray ray) {
         if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
+        final HitRecord rec = new HitRecord();
+        return intersect(ray, rec) ? rec.createHit(ray) : null;
+    }
 
-        Ray rayTrans = transform.mul(ray);
+    @Override
+    public boolean intersect(final Ray ray, final HitRecord rec) {
+        if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
+        if (geoList.size() == 0) return false;
+        // t is the same in both spaces, so the children compare against the record of the caller
+        final Ray rayTrans = transform.mul(ray);
+        boolean updated = false;
+        rec.enter(this);
+        for (Geometry geo : geoList) {
+            if (geo.intersect(rayTrans, rec)) updated = true;
+        }
+        rec.leave();
+        return updated;
+    }
 
-        if (geoList.size() == 0) return null;
-        List<Hit> hits = new LinkedList<>();
+    /**
+     * This method creates the Hit for an intersection a child of this node has stored in the record and transforms
+     * it back into the space of the ray.
+     *
+     * @param ray   The ray in the space outside this node.
+     * @param rec   The record.
+     * @param level The position of this node in the nodes around the intersection.
+     * @return The Hit.
+     */
+    Hit createHit(final Ray ray, final HitRecord rec, final int level) {
+        final Hit smallestHit = rec.createHit(transform.mul(ray), level + 1);
+        final Normal3 nBacktrans = transform.mul(smallestHit.normal);
+        final Material m = this.material instanceof NoMaterial ? smallestHit.material : this.material;
+        return new Hit(smallestHit.t, ray, m, nBacktrans, smallestHit.coord, smallestHit.footprintU, smallestHit.footprintV);
+    }
 
+    @Override
+    public boolean occludes(final Ray ray, final double tMax) {
+        if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
+        final Ray rayTrans = transform.mul(ray);
         for (Geometry geo : geoList) {
-            if (geo.hit(rayTrans) != null) {
-                hits.add(geo.hit(rayTrans));
-            }
+            if (geo.occludes(rayTrans, tMax)) return true;
         }
-        if (hits.size() == 0) return null;
-        Hit smallestHit = hits.get(0);
-        if (hits.size() > 1) {
-            for (int i = 1; i < hits.size(); i++) {
-                if (hits.get(i).t < smallestHit.t) {
-                    smallestHit = hits.get(i);
-                }
-            }
-        }
-        Normal3 nBacktrans = transform.mul(smallestHit.normal);
+        return false;
+    }
 
-        Hit hitBacktrans;
-        if (this.material instanceof NoMaterial) {
-            hitBacktrans = new Hit(smallestHit.t, ray, smallestHit.material, nBacktrans, smallestHit.coord);
-        } else {
-            hitBacktrans = new Hit(smallestHit.t, ray, this.material, nBacktrans, smallestHit.coord);
+    @Override
+    public BoundingBox bounds() {
+        if (geoList.size() == 0) return new BoundingBox(transform.m.mul(new Point3(0, 0, 0)), transform.m.mul(new Point3(0, 0, 0)));
+        BoundingBox box = null;
+        for (Geometry geo : geoList) {
+            final BoundingBox b = geo.bounds();
+            if (b.isInfinite()) return BoundingBox.INFINITE;
+            box = box == null ? b : box.union(b);
         }
-        return hitBacktrans;
+        return box.mul(transform.m);
     }
 
     @Override
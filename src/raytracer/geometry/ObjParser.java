@@ -0,0 +1,764 @@
+package raytracer.geometry;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class reads .obj files into a MeshData. The file is streamed through a byte buffer and tokenized in place,
+ * numbers go straight into growing primitive arrays, so no String or object is created per line or per vertex.
+ * Polygons with more than 3 corners are split into a fan of triangles.
+ * <p>
+ * Large files are memory mapped and split at line boundaries into chunks, which are parsed in parallel and merged.
+ * Negative indices of a chunk are relative to its own elements until the merge adds the elements of the chunks before.
+ * Positive indices are checked by the merge against the elements before their line, so a file is accepted or
+ * rejected the same way by both paths.
+ *
+ * @author TrayRacer Team
+ */
+public class ObjParser {
+    /**
+     * The size of the read buffer. Lines longer than the buffer make it grow.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * The powers of 10 that are exact doubles.
+     */
+    private static final double[] POWERS_OF_10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    /**
+     * The value of an index that is left out, as the texture coordinate in "1//2".
+     */
+    private static final int MISSING = Integer.MIN_VALUE;
+    /**
+     * The size from which parse reads a file in parallel chunks.
+     */
+    public static final long PARALLEL_THRESHOLD = 32L << 20;
+    /**
+     * The smallest size of a chunk.
+     */
+    private static final long MIN_CHUNK_SIZE = 4L << 20;
+    /**
+     * The largest size of a chunk, a mapped buffer holds at most 2 GB.
+     */
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+    /**
+     * The bias of a negative index resolved within a chunk. The index becomes index - RELATIVE, so it is told apart
+     * from the absolute indices and MeshData.NONE until the merge.
+     */
+    private static final int RELATIVE = 1 << 30;
+    /**
+     * The kind of vertex indices, their position in ahead and aheadIndex.
+     */
+    private static final int VERTEX = 0;
+    /**
+     * The kind of texture coordinate indices.
+     */
+    private static final int TEXTURE = 1;
+    /**
+     * The kind of normal indices.
+     */
+    private static final int NORMAL = 2;
+
+    /**
+     * True if this parser reads a chunk of a file, so negative indices may point before its first element.
+     */
+    private final boolean chunked;
+
+    /**
+     * The positions read so far.
+     */
+    private double[] positions = new double[3 * 1024];
+    /**
+     * The number of values in positions.
+     */
+    private int positionCount;
+    /**
+     * The texture coordinates read so far.
+     */
+    private double[] texCoords = new double[0];
+    /**
+     * The number of values in texCoords.
+     */
+    private int texCoordCount;
+    /**
+     * The normals read so far.
+     */
+    private double[] normals = new double[0];
+    /**
+     * The number of values in normals.
+     */
+    private int normalCount;
+    /**
+     * The position indices of the triangles read so far.
+     */
+    private int[] triangles = new int[3 * 2048];
+    /**
+     * The texture coordinate indices of the triangles read so far.
+     */
+    private int[] triangleTexCoords = new int[3 * 2048];
+    /**
+     * The normal indices of the triangles read so far.
+     */
+    private int[] triangleNormals = new int[3 * 2048];
+    /**
+     * The number of values in each of the triangle index arrays.
+     */
+    private int cornerCount;
+    /**
+     * The corners of the polygon being read, position, texture coordinate and normal index for each.
+     */
+    private int[] polygon = new int[3 * 8];
+    /**
+     * For each kind of element, how far the positive indices of a chunk reach past the elements read before their
+     * line, Integer.MIN_VALUE if there were none. The chunks before must have more elements than that.
+     */
+    private final int[] ahead = {Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+    /**
+     * For each kind of element, the index of the file that reaches furthest ahead, for the error message.
+     */
+    private final int[] aheadIndex = new int[3];
+
+    /**
+     * The bytes of the line being read.
+     */
+    private byte[] line;
+    /**
+     * The position of the next byte of the line to read.
+     */
+    private int pos;
+    /**
+     * The position after the last byte of the line.
+     */
+    private int end;
+
+    /**
+     * This constructor is used by parse.
+     *
+     * @param chunked True if the parser reads a chunk of a file.
+     */
+    private ObjParser(final boolean chunked) {
+        this.chunked = chunked;
+    }
+
+    /**
+     * This method reads the given .obj file. Files of PARALLEL_THRESHOLD or more are read in parallel on all
+     * processors.
+     *
+     * @param file The file.
+     * @return The mesh of the file.
+     * @throws IOException if the file can not be read.
+     */
+    public static MeshData parse(final File file) throws IOException {
+        if (file == null) throw new IllegalArgumentException("File must not be null.");
+        final int threads = Runtime.getRuntime().availableProcessors();
+        if (threads > 1 && file.length() >= PARALLEL_THRESHOLD) return parseParallel(file, threads);
+        try (InputStream in = new FileInputStream(file)) {
+            return parse(in);
+        }
+    }
+
+    /**
+     * This method reads the given .obj file in chunks on a ForkJoinPool. It accepts and rejects the same files as
+     * the sequential parser, only the reported error may be a different one if a file has several.
+     *
+     * @param file    The file.
+     * @param threads The number of threads. Must be larger than 0.
+     * @return The mesh of the file.
+     * @throws IOException if the file can not be read.
+     */
+    public static MeshData parseParallel(final File file, final int threads) throws IOException {
+        if (file == null) throw new IllegalArgumentException("File must not be null.");
+        if (threads <= 0) throw new IllegalArgumentException("Threads must be larger than 0.");
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long[] bounds = chunkBounds(channel, threads);
+            final ObjParser[] chunks = new ObjParser[bounds.length - 1];
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new Chunks(channel, bounds, chunks, null, 0, chunks.length));
+                return merge(chunks, pool);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * This method splits a file into chunks that start at the beginning of a line. There are about 4 chunks per
+     * thread, as long as they are not smaller than MIN_CHUNK_SIZE.
+     *
+     * @param channel The channel of the file.
+     * @param threads The number of threads.
+     * @return The positions of the chunks and the size of the file at the end.
+     * @throws IOException if the file can not be read.
+     */
+    private static long[] chunkBounds(final FileChannel channel, final int threads) throws IOException {
+        final long size = channel.size();
+        final long count = Math.max(1, Math.max(Math.min(4L * threads, size / MIN_CHUNK_SIZE), (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE));
+        final long[] bounds = new long[(int) count + 1];
+        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (int i = 1; i < count; i++) {
+            long position = Math.max(bounds[i - 1], size / count * i);
+            // the chunk starts after the end of the line the even split falls into
+            search:
+            while (position < size) {
+                buffer.clear();
+                final int n = channel.read(buffer, position);
+                if (n <= 0) break;
+                for (int b = 0; b < n; b++) {
+                    if (buffer.get(b) == '\n') {
+                        position += b + 1;
+                        break search;
+                    }
+                }
+                position += n;
+            }
+            bounds[i] = Math.min(position, size);
+        }
+        bounds[(int) count] = size;
+        return bounds;
+    }
+
+    /**
+     * This method joins the chunks into one mesh. The elements are copied behind each other and the indices of each
+     * chunk are moved by the elements of the chunks before, in parallel on the given pool.
+     *
+     * @param chunks The parsed chunks.
+     * @param pool   The pool.
+     * @return The mesh.
+     */
+    private static MeshData merge(final ObjParser[] chunks, final ForkJoinPool pool) {
+        final int[][] offsets = new int[chunks.length + 1][4];
+        for (int i = 0; i < chunks.length; i++) {
+            offsets[i + 1][0] = offsets[i][0] + chunks[i].positionCount;
+            offsets[i + 1][1] = offsets[i][1] + chunks[i].texCoordCount;
+            offsets[i + 1][2] = offsets[i][2] + chunks[i].normalCount;
+            offsets[i + 1][3] = offsets[i][3] + chunks[i].cornerCount;
+        }
+        final int[] total = offsets[chunks.length];
+        final MeshData mesh = new MeshData(new double[total[0]], new double[total[1]], new double[total[2]],
+                new int[total[3]], new int[total[3]], new int[total[3]]);
+        pool.invoke(new Chunks(null, null, chunks, new Merge(mesh, offsets), 0, chunks.length));
+        return mesh;
+    }
+
+    /**
+     * This method copies the elements of a chunk into the mesh and turns its indices into indices of the mesh.
+     *
+     * @param merge The mesh and the offsets of the chunks.
+     * @param i     The index of this chunk.
+     */
+    private void mergeInto(final Merge merge, final int i) {
+        final MeshData mesh = merge.mesh;
+        final int[] offset = merge.offsets[i];
+        System.arraycopy(positions, 0, mesh.positions, offset[0], positionCount);
+        System.arraycopy(texCoords, 0, mesh.texCoords, offset[1], texCoordCount);
+        System.arraycopy(normals, 0, mesh.normals, offset[2], normalCount);
+        checkAhead(VERTEX, offset[0] / 3, "vertex");
+        checkAhead(TEXTURE, offset[1] / 2, "texture");
+        checkAhead(NORMAL, offset[2] / 3, "normal");
+        moveIndices(triangles, mesh.triangles, offset[3], offset[0] / 3, mesh.getVertexCount(), "vertex");
+        moveIndices(triangleTexCoords, mesh.triangleTexCoords, offset[3], offset[1] / 2, mesh.getTexCoordCount(), "texture");
+        moveIndices(triangleNormals, mesh.triangleNormals, offset[3], offset[2] / 3, mesh.getNormalCount(), "normal");
+    }
+
+    /**
+     * This method rejects positive indices of a chunk that point past the elements read before their line, as the
+     * sequential parser does.
+     *
+     * @param kind   The kind of element.
+     * @param before The number of elements of the chunks before.
+     * @param name   The name of the element for the error message.
+     */
+    private void checkAhead(final int kind, final int before, final String name) {
+        if (ahead[kind] >= before) throw new IllegalArgumentException(name + " index out of range: " + aheadIndex[kind]);
+    }
+
+    /**
+     * This method copies the indices of a chunk into the mesh, adding the elements of the chunks before to its
+     * negative indices.
+     *
+     * @param from   The indices of this chunk.
+     * @param to     The indices of the mesh.
+     * @param start  The position of the first index of this chunk in the mesh.
+     * @param before The number of elements of the chunks before.
+     * @param count  The number of elements of the mesh.
+     * @param name   The name of the element for the error message.
+     */
+    private void moveIndices(final int[] from, final int[] to, final int start, final int before, final int count, final String name) {
+        for (int k = 0; k < cornerCount; k++) {
+            final int i = from[k];
+            if (i == MeshData.NONE) {
+                to[start + k] = MeshData.NONE;
+                continue;
+            }
+            final int index = i >= 0 ? i : i + RELATIVE + before;
+            if (index < 0 || index >= count) throw new IllegalArgumentException(name + " index out of range: " + index);
+            to[start + k] = index;
+        }
+    }
+
+    /**
+     * This method reads .obj data from the given stream. The stream is not closed.
+     *
+     * @param in The stream.
+     * @return The mesh of the data.
+     * @throws IOException if the stream can not be read.
+     */
+    public static MeshData parse(final InputStream in) throws IOException {
+        if (in == null) throw new IllegalArgumentException("InputStream must not be null.");
+        final ObjParser parser = new ObjParser(false);
+        parser.read(in);
+        return parser.toMeshData();
+    }
+
+    /**
+     * This method reads the stream line by line. A line that is cut off at the end of the buffer is moved to its
+     * start before the buffer is filled again.
+     *
+     * @param in The stream.
+     * @throws IOException if the stream can not be read.
+     */
+    private void read(final InputStream in) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length = 0;
+        while (true) {
+            final int n = in.read(buffer, length, buffer.length - length);
+            if (n < 0) {
+                if (length > 0) parseLine(buffer, 0, length);
+                return;
+            }
+            final int scanStart = length;
+            length += n;
+            int lineStart = 0;
+            for (int i = scanStart; i < length; i++) {
+                if (buffer[i] == '\n') {
+                    parseLine(buffer, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            length -= lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, length);
+            if (length == buffer.length) buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+        }
+    }
+
+    /**
+     * This method reads one line. Lines other than v, vt, vn and f are skipped.
+     *
+     * @param bytes The buffer holding the line.
+     * @param start The position of the first byte of the line.
+     * @param end   The position after the last byte of the line.
+     */
+    private void parseLine(final byte[] bytes, final int start, final int end) {
+        this.line = bytes;
+        this.pos = start;
+        this.end = end;
+        skipSpaces();
+        if (pos >= end || line[pos] == '#') return;
+
+        final int keyStart = pos;
+        while (pos < end && !isSpace(line[pos])) pos++;
+        final int keyLength = pos - keyStart;
+        final byte first = line[keyStart];
+        if (keyLength == 1 && first == 'v') {
+            positions = ensure(positions, positionCount + 3);
+            positions[positionCount++] = parseDouble();
+            positions[positionCount++] = parseDouble();
+            positions[positionCount++] = parseDouble();
+        } else if (keyLength == 2 && first == 'v' && line[keyStart + 1] == 't') {
+            texCoords = ensure(texCoords, texCoordCount + 2);
+            texCoords[texCoordCount++] = parseDouble();
+            texCoords[texCoordCount++] = hasToken() ? parseDouble() : 0;
+        } else if (keyLength == 2 && first == 'v' && line[keyStart + 1] == 'n') {
+            normals = ensure(normals, normalCount + 3);
+            normals[normalCount++] = parseDouble();
+            normals[normalCount++] = parseDouble();
+            normals[normalCount++] = parseDouble();
+        } else if (keyLength == 1 && first == 'f') {
+            parseFace();
+        }
+    }
+
+    /**
+     * This method reads the corners of a face and adds it as a fan of triangles. All corners must have the same
+     * format, e.g. all "1/2/3" or all "1//3".
+     */
+    private void parseFace() {
+        int corners = 0;
+        int format = -1;
+        while (hasToken()) {
+            polygon = ensure(polygon, 3 * corners + 3);
+            final int v = parseIndex();
+            int t = MISSING;
+            int n = MISSING;
+            int slashes = 0;
+            if (pos < end && line[pos] == '/') {
+                pos++;
+                slashes++;
+                t = parseIndex();
+                if (pos < end && line[pos] == '/') {
+                    pos++;
+                    slashes++;
+                    n = parseIndex();
+                }
+            }
+            if (pos < end && !isSpace(line[pos])) throw new RuntimeException("Illegal .obj format.");
+            if (format == -1) format = slashes;
+            else if (format != slashes) throw new RuntimeException("Illegal .obj format.");
+
+            polygon[3 * corners] = resolve(v, positionCount / 3, VERTEX, "vertex");
+            polygon[3 * corners + 1] = t == MISSING ? MeshData.NONE : resolve(t, texCoordCount / 2, TEXTURE, "texture");
+            if (slashes == 2 && n == MISSING) throw new RuntimeException("Illegal .obj format.");
+            polygon[3 * corners + 2] = n == MISSING ? MeshData.NONE : resolve(n, normalCount / 3, NORMAL, "normal");
+            corners++;
+        }
+        if (corners < 3) throw new RuntimeException("Illegal .obj format.");
+
+        for (int c = 1; c < corners - 1; c++) {
+            triangles = ensure(triangles, cornerCount + 3);
+            triangleTexCoords = ensure(triangleTexCoords, cornerCount + 3);
+            triangleNormals = ensure(triangleNormals, cornerCount + 3);
+            addCorner(0);
+            addCorner(c);
+            addCorner(c + 1);
+        }
+    }
+
+    /**
+     * This method adds a corner of the polygon to the triangles.
+     *
+     * @param corner The index of the corner in the polygon.
+     */
+    private void addCorner(final int corner) {
+        triangles[cornerCount] = polygon[3 * corner];
+        triangleTexCoords[cornerCount] = polygon[3 * corner + 1];
+        triangleNormals[cornerCount] = polygon[3 * corner + 2];
+        cornerCount++;
+    }
+
+    /**
+     * This method turns an index of the file into an index of the arrays. Positive indices count from 1, negative
+     * ones back from the last element read so far. In a chunk, negative indices are kept relative to the chunk
+     * and positive ones are checked by the merge, which knows the elements of the chunks before.
+     *
+     * @param i     The index of the file.
+     * @param count The number of elements read so far.
+     * @param kind  The kind of element.
+     * @param name  The name of the element for the error message.
+     * @return The index starting at 0.
+     */
+    private int resolve(final int i, final int count, final int kind, final String name) {
+        if (i == 0) throw new IllegalArgumentException(name + " index must not be 0.");
+        if (chunked) {
+            if (i < -RELATIVE) throw new IllegalArgumentException(name + " index out of range: " + i);
+            if (i < 0) return count + i - RELATIVE;
+            if (i - 1 - count > ahead[kind]) {
+                ahead[kind] = i - 1 - count;
+                aheadIndex[kind] = i;
+            }
+            return i - 1;
+        }
+        final int index = i > 0 ? i - 1 : count + i;
+        if (index < 0 || index >= count) throw new IllegalArgumentException(name + " index out of range: " + i);
+        return index;
+    }
+
+    /**
+     * This method skips spaces and tells whether the line has another token.
+     *
+     * @return True if a token follows.
+     */
+    private boolean hasToken() {
+        skipSpaces();
+        return pos < end && line[pos] != '#';
+    }
+
+    /**
+     * This method skips spaces, tabs and carriage returns.
+     */
+    private void skipSpaces() {
+        while (pos < end && isSpace(line[pos])) pos++;
+    }
+
+    /**
+     * This method tells whether a byte separates tokens.
+     *
+     * @param b The byte.
+     * @return True for spaces, tabs and other control characters.
+     */
+    private static boolean isSpace(final byte b) {
+        return b <= ' ' && b >= 0;
+    }
+
+    /**
+     * This method reads an integer up to the next slash or space. An empty number is returned as MISSING.
+     *
+     * @return The integer.
+     */
+    private int parseIndex() {
+        final int start = pos;
+        final boolean negative = pos < end && line[pos] == '-';
+        if (negative || (pos < end && line[pos] == '+')) pos++;
+        long value = 0;
+        int digits = 0;
+        while (pos < end && line[pos] >= '0' && line[pos] <= '9') {
+            value = value * 10 + (line[pos++] - '0');
+            if (++digits > 10) throw new NumberFormatException("For input string: \"" + token(start) + "\"");
+        }
+        if (digits == 0) {
+            if (pos == start) return MISSING;
+            throw new NumberFormatException("For input string: \"" + token(start) + "\"");
+        }
+        if (negative) value = -value;
+        if (value < Integer.MIN_VALUE + 1 || value > Integer.MAX_VALUE)
+            throw new NumberFormatException("For input string: \"" + token(start) + "\"");
+        return (int) value;
+    }
+
+    /**
+     * This method reads the next number of the line. Numbers with up to 15 significant digits and a small exponent
+     * are calculated directly, which rounds exactly like Double.parseDouble. All others are passed to it.
+     *
+     * @return The number.
+     */
+    private double parseDouble() {
+        skipSpaces();
+        final int start = pos;
+        final boolean negative = pos < end && line[pos] == '-';
+        if (negative || (pos < end && line[pos] == '+')) pos++;
+
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        int digits = 0;
+        while (pos < end && line[pos] >= '0' && line[pos] <= '9') {
+            final int d = line[pos++] - '0';
+            if (mantissa != 0 || d != 0) significant++;
+            if (significant <= 15) mantissa = mantissa * 10 + d;
+            else exponent++;
+            digits++;
+        }
+        if (pos < end && line[pos] == '.') {
+            pos++;
+            while (pos < end && line[pos] >= '0' && line[pos] <= '9') {
+                final int d = line[pos++] - '0';
+                if (mantissa != 0 || d != 0) significant++;
+                if (significant <= 15) {
+                    mantissa = mantissa * 10 + d;
+                    exponent--;
+                }
+                digits++;
+            }
+        }
+        if (digits > 0 && pos < end && (line[pos] == 'e' || line[pos] == 'E')) {
+            pos++;
+            final boolean negativeExponent = pos < end && line[pos] == '-';
+            if (negativeExponent || (pos < end && line[pos] == '+')) pos++;
+            int e = 0;
+            int exponentDigits = 0;
+            while (pos < end && line[pos] >= '0' && line[pos] <= '9') {
+                if (e < 10000) e = e * 10 + (line[pos] - '0');
+                pos++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) digits = 0;
+            exponent += negativeExponent ? -e : e;
+        }
+
+        if (digits == 0 || significant > 15 || exponent < -22 || exponent > 22 || (pos < end && !isSpace(line[pos]))) {
+            while (pos < end && !isSpace(line[pos])) pos++;
+            return Double.parseDouble(token(start));
+        }
+        final double value = exponent < 0 ? mantissa / POWERS_OF_10[-exponent] : mantissa * POWERS_OF_10[exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * This method returns the text of the line from the given position to the current one.
+     *
+     * @param start The position of the first byte.
+     * @return The text.
+     */
+    private String token(final int start) {
+        return new String(line, start, pos - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * This method creates the mesh out of the arrays read.
+     *
+     * @return The mesh.
+     */
+    private MeshData toMeshData() {
+        return new MeshData(Arrays.copyOf(positions, positionCount), Arrays.copyOf(texCoords, texCoordCount),
+                Arrays.copyOf(normals, normalCount), Arrays.copyOf(triangles, cornerCount),
+                Arrays.copyOf(triangleTexCoords, cornerCount), Arrays.copyOf(triangleNormals, cornerCount));
+    }
+
+    /**
+     * This method makes sure an array holds at least the given number of values, doubling its size if not.
+     *
+     * @param array  The array.
+     * @param needed The number of values.
+     * @return The array or a larger copy.
+     */
+    private static double[] ensure(final double[] array, final int needed) {
+        return needed <= array.length ? array : Arrays.copyOf(array, Math.max(needed, 2 * array.length));
+    }
+
+    /**
+     * This method makes sure an array holds at least the given number of values, doubling its size if not.
+     *
+     * @param array  The array.
+     * @param needed The number of values.
+     * @return The array or a larger copy.
+     */
+    private static int[] ensure(final int[] array, final int needed) {
+        return needed <= array.length ? array : Arrays.copyOf(array, Math.max(needed, 2 * array.length));
+    }
+
+    /**
+     * This class holds the mesh the chunks are merged into.
+     */
+    private static class Merge {
+        /**
+         * The mesh.
+         */
+        final MeshData mesh;
+        /**
+         * The number of position, texture coordinate, normal and corner values of the chunks before each chunk.
+         */
+        final int[][] offsets;
+
+        /**
+         * This constructor creates a merge into the given mesh.
+         *
+         * @param mesh    The mesh.
+         * @param offsets The number of values of the chunks before each chunk.
+         */
+        Merge(final MeshData mesh, final int[][] offsets) {
+            this.mesh = mesh;
+            this.offsets = offsets;
+        }
+    }
+
+    /**
+     * This class parses or merges a range of chunks and splits it in halves for other threads to steal.
+     */
+    private static class Chunks extends RecursiveAction {
+        /**
+         * The version of the serialized form, the tasks are never serialized.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * The channel of the file, null when merging.
+         */
+        private final FileChannel channel;
+        /**
+         * The positions of the chunks in the file.
+         */
+        private final long[] bounds;
+        /**
+         * The parsers of the chunks.
+         */
+        private final ObjParser[] chunks;
+        /**
+         * The merge, null when parsing.
+         */
+        private final Merge merge;
+        /**
+         * The first chunk.
+         */
+        private final int from;
+        /**
+         * The chunk after the last.
+         */
+        private final int to;
+
+        /**
+         * This constructor creates a task for the given range of chunks.
+         *
+         * @param channel The channel of the file, null when merging.
+         * @param bounds  The positions of the chunks in the file.
+         * @param chunks  The parsers of the chunks.
+         * @param merge   The merge, null when parsing.
+         * @param from    The first chunk.
+         * @param to      The chunk after the last.
+         */
+        Chunks(final FileChannel channel, final long[] bounds, final ObjParser[] chunks, final Merge merge, final int from, final int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.chunks = chunks;
+            this.merge = merge;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                if (merge != null) {
+                    chunks[from].mergeInto(merge, from);
+                    return;
+                }
+                final ObjParser parser = new ObjParser(true);
+                try {
+                    final ByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, bounds[from], bounds[from + 1] - bounds[from]);
+                    parser.read(new ByteBufferInputStream(map));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                chunks[from] = parser;
+            } else if (to - from > 1) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Chunks(channel, bounds, chunks, merge, from, middle), new Chunks(channel, bounds, chunks, merge, middle, to));
+            }
+        }
+    }
+
+    /**
+     * This class reads a mapped chunk of a file like a stream.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        /**
+         * The chunk.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * This constructor creates a stream over the remaining bytes of the buffer.
+         *
+         * @param buffer The buffer.
+         */
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (len == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            final int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
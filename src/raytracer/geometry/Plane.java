@@ -86,14 +86,60 @@ public class Plane extends Geometry {
      */
     public Hit hit(final Ray r) {
         if (r == null) throw new IllegalArgumentException("Ray must not be null.");
-        double t = ((a.sub(r.o)).dot(n)) / ((r.d).dot(n));
-        if (t > Constants.EPSILON) {
-            Normal3 normal = n.mul(1 / Math.sqrt(n.x * n.x + n.y * n.y + n.z * n.z));
+        final double t = nearest(r);
+        if (!(t > Constants.EPSILON)) return null;
+        return createHit(r, t);
+    }
 
+    @Override
+    public boolean intersect(final Ray r, final HitRecord rec) {
+        if (r == null) throw new IllegalArgumentException("Ray must not be null.");
+        final double t = nearest(r);
+        if (!(t > Constants.EPSILON && t < rec.t)) return false;
+        rec.set(t, this, 0, 0, 0);
+        return true;
+    }
 
-            return new Hit(t, r, this.material, normal, TextureUtils.getPlaneTexCoord(r, t, n, textureScalar));
-        }
-        return null;
+    @Override
+    public Hit createHit(final Ray r, final HitRecord rec) {
+        return createHit(r, rec.t);
+    }
+
+    @Override
+    public boolean occludes(final Ray r, final double tMax) {
+        if (r == null) throw new IllegalArgumentException("Ray must not be null.");
+        final double t = nearest(r);
+        return Constants.EPSILON < t && t < tMax;
+    }
+
+    /**
+     * This method calculates the t of the intersection with the ray without allocating any objects.
+     *
+     * @param r The ray.
+     * @return The t of the intersection, which may be negative, infinite or NaN.
+     */
+    private double nearest(final Ray r) {
+        return ((a.x - r.o.x) * n.x + (a.y - r.o.y) * n.y + (a.z - r.o.z) * n.z)
+                / (r.d.x * n.x + r.d.y * n.y + r.d.z * n.z);
+    }
+
+    /**
+     * This method creates the hit at the given t with the normalized normal, the texture coordinates and the
+     * footprint of the ray cone.
+     *
+     * @param r The ray.
+     * @param t The t of the intersection.
+     * @return The hit.
+     */
+    private Hit createHit(final Ray r, final double t) {
+        Normal3 normal = n.mul(1 / Math.sqrt(n.x * n.x + n.y * n.y + n.z * n.z));
+        final double footprint = TextureUtils.footprint(r, t, n) / textureScalar;
+        return new Hit(t, r, this.material, normal, TextureUtils.getPlaneTexCoord(r, t, n, textureScalar), footprint, footprint);
+    }
+
+    @Override
+    public BoundingBox bounds() {
+        return BoundingBox.INFINITE;
     }
 
     @Override
@@ -4,6 +4,7 @@ import raytracer.material.Material;
 import raytracer.math.*;
 import raytracer.texture.Color;
 import raytracer.texture.TexCoord2;
+import raytracer.texture.TextureUtils;
 
 /**
  * This class represents a sphere.
@@ -56,29 +57,74 @@ public class Sphere extends Geometry {
      */
     public final Hit hit(final Ray r) {
         if (r == null) throw new IllegalArgumentException("Ray must not be null.");
-        double a = r.d.dot(r.d);
-        double b = r.d.dot((r.o.sub(c)).mul(2));
-        double c = ((r.o.sub(this.c)).dot(r.o.sub(this.c))) - Math.pow(radius, 2);
-        double d = Math.pow(b, 2) - 4 * (a * c);
+        final double t = nearest(r);
+        if (!(t > Constants.EPSILON)) return null;
+        return createHit(r, t);
+    }
+
+    @Override
+    public boolean intersect(final Ray r, final HitRecord rec) {
+        if (r == null) throw new IllegalArgumentException("Ray must not be null.");
+        final double t = nearest(r);
+        if (!(t < rec.t)) return false;
+        rec.set(t, this, 0, 0, 0);
+        return true;
+    }
+
+    @Override
+    public Hit createHit(final Ray r, final HitRecord rec) {
+        return createHit(r, rec.t);
+    }
+
+    @Override
+    public boolean occludes(final Ray r, final double tMax) {
+        if (r == null) throw new IllegalArgumentException("Ray must not be null.");
+        return nearest(r) < tMax;
+    }
+
+    /**
+     * This method creates the hit at the given t. The texture coordinate u runs once around the equator and v from
+     * pole to pole, which gives the footprint of the ray cone in texture coordinates.
+     *
+     * @param r The ray.
+     * @param t The t of the intersection.
+     * @return The hit.
+     */
+    private Hit createHit(final Ray r, final double t) {
+        final Normal3 normal = normalAt(r, t);
+        final double footprint = TextureUtils.footprint(r, t, normal);
+        return new Hit(t, r, this.material, normal, calcTexCoord(r, t), footprint / (2 * Math.PI * radius), footprint / (Math.PI * radius));
+    }
 
-        if (d < 0) return null;
+    /**
+     * This method calculates the t of the intersection with the ray without allocating any objects.
+     *
+     * @param r The ray.
+     * @return The t of the intersection, larger than Constants.EPSILON, or NaN if the sphere is not hit.
+     */
+    private double nearest(final Ray r) {
+        final double ox = r.o.x - c.x;
+        final double oy = r.o.y - c.y;
+        final double oz = r.o.z - c.z;
+        final double a = r.d.x * r.d.x + r.d.y * r.d.y + r.d.z * r.d.z;
+        final double b = 2 * (r.d.x * ox + r.d.y * oy + r.d.z * oz);
+        final double c = ox * ox + oy * oy + oz * oz - radius * radius;
+        final double d = b * b - 4 * (a * c);
+
+        if (d < 0) return Double.NaN;
         if (d == 0) {
-            double t = (-b) / (2 * a);
-            if (t > Constants.EPSILON) {
-                return new Hit(t, r, this.material, normalAt(r, t), calcTexCoord(r, t));
-            }
-        }
-        if (d > 0) {
-            double t1 = ((-b) + Math.sqrt(d)) / (2 * a);
-            double t2 = ((-b) - Math.sqrt(d)) / (2 * a);
-            if (t1 < t2 && t1 > Constants.EPSILON) {
-                return new Hit(t1, r, this.material, normalAt(r, t1), calcTexCoord(r, t1));
-            }
-            if (t2 > Constants.EPSILON) {
-                return new Hit(t2, r, this.material, normalAt(r, t2), calcTexCoord(r, t2));
-            }
+            final double t = (-b) / (2 * a);
+            return t > Constants.EPSILON ? t : Double.NaN;
         }
-        return null;
+        final double t1 = ((-b) + Math.sqrt(d)) / (2 * a);
+        final double t2 = ((-b) - Math.sqrt(d)) / (2 * a);
+        if (t1 < t2 && t1 > Constants.EPSILON) return t1;
+        return t2 > Constants.EPSILON ? t2 : Double.NaN;
+    }
+
+    @Override
+    public BoundingBox bounds() {
+        return new BoundingBox(new Point3(c.x - radius, c.y - radius, c.z - radius), new Point3(c.x + radius, c.y + radius, c.z + radius));
     }
 
     /**
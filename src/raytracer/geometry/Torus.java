@@ -3,6 +3,7 @@ package raytracer.geometry;
 import raytracer.material.Material;
 import raytracer.math.*;
 import raytracer.texture.TexCoord2;
+import raytracer.texture.TextureUtils;
 
 /**
  * This class represents a Torus around the z-axis on the 0-Point.
@@ -46,7 +47,12 @@ public class Torus extends Geometry {
 
         if (roots != null) {
             double t = roots[0];
-            return new Hit(t, r, this.material, normalAt(r, roots[0]), calcTexCoord(r, t));
+            final Normal3 normal = normalAt(r, roots[0]);
+            final Point3 p = r.at(t);
+            final double footprint = TextureUtils.footprint(r, t, normal);
+            // u runs once around the z-axis, v once around the tube
+            return new Hit(t, r, this.material, normal, calcTexCoord(r, t),
+                    footprint / (2 * Math.PI * Math.sqrt(p.x * p.x + p.y * p.y)), footprint / (2 * Math.PI * diameter));
         }
         return null;
     }
@@ -94,6 +100,13 @@ public class Torus extends Geometry {
         return hitVector.invert().asNormal();
     }
 
+    @Override
+    public BoundingBox bounds() {
+        final double r = Math.abs(radius) + Math.abs(diameter);
+        final double d = Math.abs(diameter);
+        return new BoundingBox(new Point3(-r, -r, -d), new Point3(r, r, d));
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
@@ -3,6 +3,7 @@ package raytracer.geometry;
 import raytracer.material.Material;
 import raytracer.math.*;
 import raytracer.texture.TexCoord2;
+import raytracer.texture.TextureUtils;
 
 /**
  * This class represents a triangle.
@@ -46,6 +47,10 @@ public class Triangle extends Geometry {
      * The texture coordinate of point c.
      */
     public final TexCoord2 tc;
+    /**
+     * The point a and the edges b - a and c - a, precomputed for the intersection.
+     */
+    private final double[] edges;
 
     /**
      * This constructor creates a triangle with 3 Points and the normal.
@@ -103,6 +108,7 @@ public class Triangle extends Geometry {
         this.ta = ta;
         this.tb = tb;
         this.tc = tc;
+        this.edges = new double[]{a.x, a.y, a.z, b.x - a.x, b.y - a.y, b.z - a.z, c.x - a.x, c.y - a.y, c.z - a.z};
     }
 
     /**
@@ -113,23 +119,128 @@ public class Triangle extends Geometry {
      */
     public Hit hit(final Ray ray) {
         if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
-        Mat3x3 matA = new Mat3x3(a.x - b.x, a.x - c.x, ray.d.x, a.y - b.y, a.y - c.y, ray.d.y, a.z - b.z, a.z - c.z, ray.d.z);
-        Vector3 right = new Vector3(a.x - ray.o.x, a.y - ray.o.y, a.z - ray.o.z);
-        double detA = matA.determinant;
-        if (detA == 0) return null;
-        double beta = matA.changeCol1(right).determinant / detA;
-        double gamma = matA.changeCol2(right).determinant / detA;
-        double t = matA.changeCol3(right).determinant / detA;
-        if (Constants.EPSILON < t && 0 <= beta && beta <= 1 && 0 <= gamma && gamma <= 1 && beta + gamma <= 1) {
-            //create normal and normalize
-            double alpha = 1.0 - beta - gamma;
-            Normal3 normal = (na.mul(alpha)).add((nb.mul(beta)).add(nc.mul(gamma)));
-            normal = normal.mul(1 / (Math.sqrt(normal.x * normal.x + normal.y * normal.y + normal.z * normal.z)));
-            //TODO
-            TexCoord2 coord2 = new TexCoord2(ta.u * alpha + tb.u * beta + tc.u * gamma, ta.v * alpha + tb.v * beta + tc.v * gamma);
-            return new Hit(t, ray, this.material, normal, coord2);
+        final HitRecord rec = new HitRecord();
+        return intersect(ray, rec) ? createHit(ray, rec) : null;
+    }
+
+    @Override
+    public boolean intersect(final Ray ray, final HitRecord rec) {
+        if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
+        return intersect(edges, 0, edges, 3, ray, rec, this, 0);
+    }
+
+    /**
+     * This method intersects a triangle with a ray and records a closer hit.
+     *
+     * @param corners   The array holding the corner a.
+     * @param a         The position of the corner a in corners.
+     * @param edges     The array holding the edges b - a and c - a, 6 values.
+     * @param e         The position of the edges in edges.
+     * @param ray       The ray.
+     * @param rec       The record holding the closest intersection found so far.
+     * @param geometry  The geometry to record.
+     * @param primitive The primitive to record.
+     * @return True if the record was updated.
+     */
+    static boolean intersect(final double[] corners, final int a, final double[] edges, final int e, final Ray ray,
+                             final HitRecord rec, final Geometry geometry, final int primitive) {
+        final double t = distance(corners, a, edges, e, ray, rec);
+        if (!(Constants.EPSILON < t && t < rec.t)) return false;
+        rec.set(t, geometry, primitive, rec.candidateU, rec.candidateV);
+        return true;
+    }
+
+    /**
+     * This method tests whether a triangle blocks a ray before tMax.
+     *
+     * @param corners The array holding the corner a.
+     * @param a       The position of the corner a in corners.
+     * @param edges   The array holding the edges b - a and c - a, 6 values.
+     * @param e       The position of the edges in edges.
+     * @param ray     The ray.
+     * @param tMax    The t of the light.
+     * @return True if the triangle is hit between Constants.EPSILON and tMax.
+     */
+    static boolean occludes(final double[] corners, final int a, final double[] edges, final int e, final Ray ray,
+                            final double tMax) {
+        final double t = distance(corners, a, edges, e, ray, null);
+        return Constants.EPSILON < t && t < tMax;
+    }
+
+    /**
+     * This method intersects a triangle with a ray after Möller and Trumbore. The barycentric coordinates are checked
+     * before t is calculated, so most misses end after 2 cross products.
+     *
+     * @param corners The array holding the corner a.
+     * @param a       The position of the corner a in corners.
+     * @param edges   The array holding the edges b - a and c - a, 6 values.
+     * @param e       The position of the edges in edges.
+     * @param ray     The ray.
+     * @param rec     The record whose candidate gets the barycentric coordinates beta and gamma, or null.
+     * @return The t of the intersection or NaN if the ray misses the triangle.
+     */
+    private static double distance(final double[] corners, final int a, final double[] edges, final int e,
+                                   final Ray ray, final HitRecord rec) {
+        final double e1x = edges[e], e1y = edges[e + 1], e1z = edges[e + 2];
+        final double e2x = edges[e + 3], e2y = edges[e + 4], e2z = edges[e + 5];
+        final double dx = ray.d.x, dy = ray.d.y, dz = ray.d.z;
+        final double px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        final double det = e1x * px + e1y * py + e1z * pz;
+        if (det == 0) return Double.NaN;
+        final double inv = 1 / det;
+        final double sx = ray.o.x - corners[a], sy = ray.o.y - corners[a + 1], sz = ray.o.z - corners[a + 2];
+        final double beta = (sx * px + sy * py + sz * pz) * inv;
+        if (!(0 <= beta && beta <= 1)) return Double.NaN;
+        final double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        final double gamma = (dx * qx + dy * qy + dz * qz) * inv;
+        if (!(0 <= gamma && beta + gamma <= 1)) return Double.NaN;
+        if (rec != null) {
+            rec.candidateU = beta;
+            rec.candidateV = gamma;
         }
-        return null;
+        return (e2x * qx + e2y * qy + e2z * qz) * inv;
+    }
+
+    @Override
+    public Hit createHit(final Ray ray, final HitRecord rec) {
+        final double beta = rec.u;
+        final double gamma = rec.v;
+        //create normal and normalize
+        double alpha = 1.0 - beta - gamma;
+        Normal3 normal = (na.mul(alpha)).add((nb.mul(beta)).add(nc.mul(gamma)));
+        normal = normal.mul(1 / (Math.sqrt(normal.x * normal.x + normal.y * normal.y + normal.z * normal.z)));
+        //TODO
+        TexCoord2 coord2 = new TexCoord2(ta.u * alpha + tb.u * beta + tc.u * gamma, ta.v * alpha + tb.v * beta + tc.v * gamma);
+        final double footprint = TextureUtils.footprint(ray, rec.t, normal) * texCoordScale();
+        return new Hit(rec.t, ray, this.material, normal, coord2, footprint, footprint);
+    }
+
+    /**
+     * This method calculates how much the texture coordinates change per unit of length on the triangle, as the
+     * square root of the ratio of its area in texture coordinates to its area in space.
+     *
+     * @return The change of the texture coordinates per unit of length, 0 for a degenerate triangle.
+     */
+    private double texCoordScale() {
+        final double ex = b.x - a.x, ey = b.y - a.y, ez = b.z - a.z;
+        final double fx = c.x - a.x, fy = c.y - a.y, fz = c.z - a.z;
+        final double cx = ey * fz - ez * fy, cy = ez * fx - ex * fz, cz = ex * fy - ey * fx;
+        final double area = Math.sqrt(cx * cx + cy * cy + cz * cz);
+        if (area == 0) return 0;
+        final double texArea = Math.abs((tb.u - ta.u) * (tc.v - ta.v) - (tc.u - ta.u) * (tb.v - ta.v));
+        return Math.sqrt(texArea / area);
+    }
+
+    @Override
+    public boolean occludes(final Ray ray, final double tMax) {
+        if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
+        return occludes(edges, 0, edges, 3, ray, tMax);
+    }
+
+    @Override
+    public BoundingBox bounds() {
+        return new BoundingBox(new Point3(Math.min(a.x, Math.min(b.x, c.x)), Math.min(a.y, Math.min(b.y, c.y)), Math.min(a.z, Math.min(b.z, c.z))),
+                new Point3(Math.max(a.x, Math.max(b.x, c.x)), Math.max(a.y, Math.max(b.y, c.y)), Math.max(a.z, Math.max(b.z, c.z))));
     }
 
     @Override
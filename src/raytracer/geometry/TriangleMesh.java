@@ -0,0 +1,255 @@
+package raytracer.geometry;
+
+import raytracer.material.Material;
+import raytracer.math.Normal3;
+import raytracer.math.Point3;
+import raytracer.math.Ray;
+import raytracer.texture.TexCoord2;
+import raytracer.texture.TextureUtils;
+
+/**
+ * This class represents a mesh of triangles that share the arrays of a MeshData. A triangle is only its 3 corner
+ * indices, the intersection reads a corner from the positions and 2 edges per triangle from one flat array and the normal and texture
+ * coordinates are created for the hit triangle only. The index of the hit triangle is kept as the primitive of the HitRecord.
+ * <p>
+ * Corners without a normal get the normal of their triangle, corners without texture coordinates the defaults of
+ * Triangle.
+ *
+ * @author TrayRacer Team
+ */
+public class TriangleMesh extends Geometry {
+    /**
+     * The positions of the vertices, x, y and z for each.
+     */
+    private final double[] positions;
+    /**
+     * The texture coordinates, u and v for each.
+     */
+    private final double[] texCoords;
+    /**
+     * The normals, x, y and z for each.
+     */
+    private final double[] normals;
+    /**
+     * The indices of the positions of the corners, 3 for each triangle.
+     */
+    private final int[] triangles;
+    /**
+     * The indices of the texture coordinates of the corners, 3 for each triangle.
+     */
+    private final int[] triangleTexCoords;
+    /**
+     * The indices of the normals of the corners, 3 for each triangle.
+     */
+    private final int[] triangleNormals;
+    /**
+     * The edges b - a and c - a of the triangles, 6 values each, precomputed for the intersection. The corner a is
+     * read from the positions.
+     */
+    private final double[] edges;
+    /**
+     * The box around all vertices.
+     */
+    private final BoundingBox bounds;
+    /**
+     * The bounding volume hierarchy over the triangles.
+     */
+    public final BVH bvh;
+    /**
+     * The closest hit search over the triangles, shared by all rays.
+     */
+    private final BVH.Intersector closestHit = this::intersectTriangle;
+    /**
+     * The occlusion test over the triangles, shared by all shadow rays.
+     */
+    private final BVH.Occluder anyHit = this::occludesTriangle;
+
+    /**
+     * This constructor creates the mesh and builds its hierarchy.
+     *
+     * @param mesh     The arrays of the mesh. They are shared, not copied.
+     * @param material The material of the mesh.
+     */
+    public TriangleMesh(final MeshData mesh, final Material material) {
+        this(mesh, null, material);
+    }
+
+    /**
+     * This constructor creates the mesh with a hierarchy built before, e.g. read from the MeshCache.
+     *
+     * @param mesh     The arrays of the mesh. They are shared, not copied.
+     * @param bvh      The hierarchy over the triangles of the mesh or null to build it.
+     * @param material The material of the mesh.
+     */
+    public TriangleMesh(final MeshData mesh, final BVH bvh, final Material material) {
+        super(material);
+        if (mesh == null) throw new IllegalArgumentException("Mesh must not be null.");
+        this.positions = mesh.positions;
+        this.texCoords = mesh.texCoords;
+        this.normals = mesh.normals;
+        this.triangles = mesh.triangles;
+        this.triangleTexCoords = mesh.triangleTexCoords;
+        this.triangleNormals = mesh.triangleNormals;
+        this.bvh = bvh != null ? bvh : new BVH(triangleBounds());
+
+        this.edges = new double[2 * triangles.length];
+        for (int i = 0; i < triangles.length / 3; i++) {
+            final int a = 3 * triangles[3 * i], b = 3 * triangles[3 * i + 1], c = 3 * triangles[3 * i + 2];
+            for (int axis = 0; axis < 3; axis++) {
+                edges[6 * i + axis] = positions[b + axis] - positions[a + axis];
+                edges[6 * i + 3 + axis] = positions[c + axis] - positions[a + axis];
+            }
+        }
+
+        final double[] min = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        final double[] max = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = 0; i < positions.length; i++) {
+            min[i % 3] = Math.min(min[i % 3], positions[i]);
+            max[i % 3] = Math.max(max[i % 3], positions[i]);
+        }
+        // a mesh without vertices gets an empty box at the origin
+        this.bounds = positions.length == 0 ? new BoundingBox(new Point3(0, 0, 0), new Point3(0, 0, 0))
+                : new BoundingBox(new Point3(min[0], min[1], min[2]), new Point3(max[0], max[1], max[2]));
+    }
+
+    /**
+     * This method returns the number of triangles.
+     *
+     * @return The number of triangles.
+     */
+    public int getTriangleCount() {
+        return triangles.length / 3;
+    }
+
+    /**
+     * This method calculates the bounds of all triangles for the hierarchy.
+     *
+     * @return The bounds, 6 values (lbf and run) per triangle.
+     */
+    private double[] triangleBounds() {
+        final double[] bounds = new double[2 * triangles.length];
+        for (int i = 0; i < triangles.length / 3; i++) {
+            final int a = 3 * triangles[3 * i], b = 3 * triangles[3 * i + 1], c = 3 * triangles[3 * i + 2];
+            for (int axis = 0; axis < 3; axis++) {
+                bounds[6 * i + axis] = Math.min(positions[a + axis], Math.min(positions[b + axis], positions[c + axis]));
+                bounds[6 * i + 3 + axis] = Math.max(positions[a + axis], Math.max(positions[b + axis], positions[c + axis]));
+            }
+        }
+        return bounds;
+    }
+
+    @Override
+    public Hit hit(final Ray ray) {
+        if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
+        final HitRecord rec = new HitRecord();
+        return intersect(ray, rec) ? createHit(ray, rec) : null;
+    }
+
+    @Override
+    public boolean intersect(final Ray ray, final HitRecord rec) {
+        if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
+        return triangles.length != 0 && bvh.traverse(ray, rec, closestHit);
+    }
+
+    @Override
+    public boolean occludes(final Ray ray, final double tMax) {
+        if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
+        return triangles.length != 0 && bvh.occluded(ray, tMax, anyHit);
+    }
+
+    /**
+     * This method intersects one triangle with the ray and records a closer hit.
+     *
+     * @param triangle The index of the triangle.
+     * @param ray      The ray.
+     * @param rec      The record holding the closest intersection found so far.
+     * @return True if the record was updated.
+     */
+    private boolean intersectTriangle(final int triangle, final Ray ray, final HitRecord rec) {
+        return Triangle.intersect(positions, 3 * triangles[3 * triangle], edges, 6 * triangle, ray, rec, this, triangle);
+    }
+
+    /**
+     * This method tests whether one triangle blocks the ray before tMax.
+     *
+     * @param triangle The index of the triangle.
+     * @param ray      The ray.
+     * @param tMax     The t of the light.
+     * @return True if the triangle is hit between Constants.EPSILON and tMax.
+     */
+    private boolean occludesTriangle(final int triangle, final Ray ray, final double tMax) {
+        return Triangle.occludes(positions, 3 * triangles[3 * triangle], edges, 6 * triangle, ray, tMax);
+    }
+
+    @Override
+    public Hit createHit(final Ray ray, final HitRecord rec) {
+        final int i = 3 * rec.primitive;
+        final int a = 3 * triangles[i], b = 3 * triangles[i + 1], c = 3 * triangles[i + 2];
+        final double beta = rec.u;
+        final double gamma = rec.v;
+        final double alpha = 1.0 - beta - gamma;
+
+        // the normal of the triangle, for corners without their own
+        final double ex = positions[b] - positions[a], ey = positions[b + 1] - positions[a + 1], ez = positions[b + 2] - positions[a + 2];
+        final double fx = positions[c] - positions[a], fy = positions[c + 1] - positions[a + 1], fz = positions[c + 2] - positions[a + 2];
+        final double cx = (ey * fz) - (ez * fy), cy = (ez * fx) - (ex * fz), cz = (ex * fy) - (ey * fx);
+        final double area = Math.sqrt((cx * cx) + (cy * cy) + (cz * cz));
+
+        final int na = triangleNormals[i], nb = triangleNormals[i + 1], nc = triangleNormals[i + 2];
+        final double nx = normal(na, 0, cx / area) * alpha + (normal(nb, 0, cx / area) * beta + normal(nc, 0, cx / area) * gamma);
+        final double ny = normal(na, 1, cy / area) * alpha + (normal(nb, 1, cy / area) * beta + normal(nc, 1, cy / area) * gamma);
+        final double nz = normal(na, 2, cz / area) * alpha + (normal(nb, 2, cz / area) * beta + normal(nc, 2, cz / area) * gamma);
+        final double scale = 1 / (Math.sqrt(nx * nx + ny * ny + nz * nz));
+        final Normal3 normal = new Normal3(nx * scale, ny * scale, nz * scale);
+
+        final double tau = texCoord(i, 0, 0, 0), tav = texCoord(i, 0, 1, 0);
+        final double tbu = texCoord(i, 1, 0, 0), tbv = texCoord(i, 1, 1, 1);
+        final double tcu = texCoord(i, 2, 0, 1), tcv = texCoord(i, 2, 1, 1);
+        final TexCoord2 coord2 = new TexCoord2(tau * alpha + tbu * beta + tcu * gamma, tav * alpha + tbv * beta + tcv * gamma);
+
+        // how much the texture coordinates change per unit of length, as in Triangle
+        final double texArea = Math.abs((tbu - tau) * (tcv - tav) - (tcu - tau) * (tbv - tav));
+        final double texCoordScale = area == 0 ? 0 : Math.sqrt(texArea / area);
+        final double footprint = TextureUtils.footprint(ray, rec.t, normal) * texCoordScale;
+        return new Hit(rec.t, ray, this.material, normal, coord2, footprint, footprint);
+    }
+
+    /**
+     * This method returns a texture coordinate of a corner of a triangle.
+     *
+     * @param i            The position of the triangle in the index arrays.
+     * @param corner       The corner, 0 to 2.
+     * @param component    0 for u, 1 for v.
+     * @param defaultValue The value for corners without texture coordinates.
+     * @return The texture coordinate.
+     */
+    private double texCoord(final int i, final int corner, final int component, final double defaultValue) {
+        final int t = triangleTexCoords[i + corner];
+        return t == MeshData.NONE ? defaultValue : texCoords[2 * t + component];
+    }
+
+    /**
+     * This method returns a component of the normal of a corner.
+     *
+     * @param n         The index of the normal of the corner.
+     * @param component 0 for x, 1 for y, 2 for z.
+     * @param faceValue The component of the normal of the triangle, for corners without a normal.
+     * @return The component.
+     */
+    private double normal(final int n, final int component, final double faceValue) {
+        return n == MeshData.NONE ? faceValue : normals[3 * n + component];
+    }
+
+    @Override
+    public BoundingBox bounds() {
+        return bounds;
+    }
+
+    @Override
+    public String toString() {
+        return "TriangleMesh{" +
+                "triangles=" + getTriangleCount() +
+                ", vertices=" + positions.length / 3 +
+                "} " + super.toString();
+    }
+}
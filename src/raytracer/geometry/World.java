@@ -4,8 +4,10 @@ import raytracer.light.Light;
 import raytracer.math.Ray;
 import raytracer.texture.Color;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class represents a holder for multiple geometries.
@@ -29,6 +31,43 @@ public class World {
      * The Lights in this world.
      */
     private List<Light> lights = new LinkedList<>();
+    /**
+     * The bounding volume hierarchy over the bounded geometries. Built on the first hit after a change.
+     */
+    private volatile BVH bvh;
+    /**
+     * The bounded geometries, indexed like the primitives of the bounding volume hierarchy.
+     */
+    private Geometry[] bounded;
+    /**
+     * The geometries without finite bounds, e.g. planes.
+     */
+    private Geometry[] unbounded;
+    /**
+     * The closest hit search over the bounded geometries.
+     */
+    private ClosestHit closestHit;
+    /**
+     * The occlusion test over the bounded geometries.
+     */
+    private AnyHit anyHit;
+    /**
+     * The hit record of each thread, reused for every ray.
+     */
+    private static final ThreadLocal<HitRecord> RECORDS = ThreadLocal.withInitial(HitRecord::new);
+    /**
+     * Set while rays are counted. Off by default, so normal renders do not update the shared counters on every ray.
+     * It is only changed between renders, the start of the render threads publishes it.
+     */
+    private boolean countingRays;
+    /**
+     * The number of rays passed to hit while counting, cheap to update from many threads.
+     */
+    private final LongAdder rays = new LongAdder();
+    /**
+     * The number of rays passed to occluded while counting.
+     */
+    private final LongAdder shadowRays = new LongAdder();
 
     /**
      * This constructor creates an empty world with the given background color and ambient light color.
@@ -46,30 +85,48 @@ public class World {
     /**
      * This method checks if a ray hits any geometry in this world and returns the Hit with the
      * smallest positive t or null if no geometry is hit.
+     * Bounded geometries are searched through the bounding volume hierarchy, unbounded ones are tested one by one.
      *
      * @param ray The ray.
      * @return The Hit with the smallest positive t or null if no geometry is hit.
      */
     public Hit hit(final Ray ray) {
         if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
+        if (countingRays) rays.increment();
         if (geometries.size() == 0) return null;
-        List<Hit> hits = new LinkedList<>();
-        //noinspection Convert2streamapi
-        for (Geometry geo : geometries) {
-            if (geo.hit(ray) != null) {
-                hits.add(geo.hit(ray));
-            }
+        BVH tree = bvh;
+        if (tree == null) tree = buildHierarchy();
+
+        // the geometries only record t and their surface parameters, the Hit is created once for the closest
+        final HitRecord rec = RECORDS.get().reset();
+        for (Geometry geo : unbounded) {
+            geo.intersect(ray, rec);
         }
-        if (hits.size() == 0) return null;
-        Hit smallestHit = hits.get(0);
-        if (hits.size() > 1) {
-            for (int i = 1; i < hits.size(); i++) {
-                if (hits.get(i).t < smallestHit.t) {
-                    smallestHit = hits.get(i);
-                }
-            }
+        tree.traverse(ray, rec, closestHit);
+        final Hit hit = rec.createHit(ray);
+        rec.reset();
+        return hit;
+    }
+
+    /**
+     * This method checks if a ray hits any geometry in this world with a t between Constants.EPSILON and tMax.
+     * It returns on the first blocker found and builds no Hit, so it is meant for shadow rays.
+     *
+     * @param ray  The ray.
+     * @param tMax The t up to which hits are searched, e.g. the t of the light.
+     * @return True if any geometry is hit before tMax.
+     */
+    public boolean occluded(final Ray ray, final double tMax) {
+        if (ray == null) throw new IllegalArgumentException("Ray must not be null.");
+        if (countingRays) shadowRays.increment();
+        if (geometries.size() == 0) return false;
+        BVH tree = bvh;
+        if (tree == null) tree = buildHierarchy();
+
+        for (Geometry geo : unbounded) {
+            if (geo.occludes(ray, tMax)) return true;
         }
-        return smallestHit;
+        return tree.occluded(ray, tMax, anyHit);
     }
 
     /**
@@ -80,6 +137,7 @@ public class World {
     public void addGeometry(final Geometry geo) {
         if (geo == null) throw new IllegalArgumentException("Geometrie must not be null.");
         this.geometries.add(geo);
+        this.bvh = null;
     }
 
     /**
@@ -101,6 +159,63 @@ public class World {
         return lights;
     }
 
+    /**
+     * This method turns the counting of rays on or off. It must not be called while rays are traced.
+     *
+     * @param countingRays True to count the rays passed to hit and occluded.
+     */
+    public void setCountingRays(final boolean countingRays) {
+        this.countingRays = countingRays;
+    }
+
+    /**
+     * This method returns the number of rays tested with hit while counting since the last reset.
+     *
+     * @return The number of rays.
+     */
+    public long getRayCount() {
+        return rays.sum();
+    }
+
+    /**
+     * This method returns the number of rays tested with occluded while counting since the last reset.
+     *
+     * @return The number of shadow rays.
+     */
+    public long getShadowRayCount() {
+        return shadowRays.sum();
+    }
+
+    /**
+     * This method sets the ray counts back to 0.
+     */
+    public void resetRayCounts() {
+        rays.reset();
+        shadowRays.reset();
+    }
+
+    /**
+     * This method splits the geometries into bounded and unbounded ones and builds the bounding volume hierarchy
+     * over the bounded ones.
+     *
+     * @return The bounding volume hierarchy.
+     */
+    private synchronized BVH buildHierarchy() {
+        if (bvh != null) return bvh;
+        List<Geometry> boundedList = new ArrayList<>();
+        List<Geometry> unboundedList = new ArrayList<>();
+        for (Geometry geo : geometries) {
+            if (geo.bounds().isInfinite()) unboundedList.add(geo);
+            else boundedList.add(geo);
+        }
+        bounded = boundedList.toArray(new Geometry[boundedList.size()]);
+        unbounded = unboundedList.toArray(new Geometry[unboundedList.size()]);
+        closestHit = new ClosestHit(bounded);
+        anyHit = new AnyHit(bounded);
+        bvh = BVH.forGeometries(bounded);
+        return bvh;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
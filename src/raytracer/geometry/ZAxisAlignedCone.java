@@ -73,7 +73,7 @@ public class ZAxisAlignedCone extends Geometry {
         if (d == 0) {
             double t = (-b) / (2 * a);
             if (t > Constants.EPSILON && zmin <= r.at(t).z && r.at(t).z <= zmax) {
-                return new Hit(t, r, this.material, normalAt(r, t), TextureUtils.getConeTexCoord(r, t, basecenter, zheight));
+                return createHit(r, t, basecenter, zheight);
             }
         }
         if (d > 0) {
@@ -83,13 +83,31 @@ public class ZAxisAlignedCone extends Geometry {
             boolean b2 = t2 > Constants.EPSILON && zmin <= r.at(t2).z && r.at(t2).z <= zmax;
 
             if ((b1 && !b2) || (b1 && b2 && t1 < t2))
-                return new Hit(t1, r, this.material, normalAt(r, t1), TextureUtils.getConeTexCoord(r, t1, basecenter, zheight));
+                return createHit(r, t1, basecenter, zheight);
             if ((!b1 && b2) || (b1 && b2 && t1 > t2))
-                return new Hit(t2, r, this.material, normalAt(r, t2), TextureUtils.getConeTexCoord(r, t2, basecenter, zheight));
+                return createHit(r, t2, basecenter, zheight);
         }
         return null;
     }
 
+    /**
+     * This method creates the hit at the given t. The texture coordinate u runs once around the axis and v along
+     * the height, which gives the footprint of the ray cone in texture coordinates.
+     *
+     * @param r          The ray.
+     * @param t          The t of the intersection.
+     * @param basecenter The center of the lower end.
+     * @param zheight    The height between the lower and the upper end.
+     * @return The hit.
+     */
+    private Hit createHit(final Ray r, final double t, final Point3 basecenter, final double zheight) {
+        final Normal3 normal = normalAt(r, t);
+        final Point3 p = r.at(t);
+        final double footprint = TextureUtils.footprint(r, t, normal);
+        final double around = 2 * Math.PI * Math.sqrt((p.x - m.x) * (p.x - m.x) + (p.y - m.y) * (p.y - m.y));
+        return new Hit(t, r, this.material, normal, TextureUtils.getConeTexCoord(r, t, basecenter, zheight), footprint / around, footprint / zheight);
+    }
+
     /**
      * This method takes a ray and a double t and calculates the hitpoint and returns the normal of that point
      *
@@ -105,6 +123,13 @@ public class ZAxisAlignedCone extends Geometry {
         return cp.normalized().add(new Vector3(0, 0, 1 / s)).asNormal();
     }
 
+    @Override
+    public BoundingBox bounds() {
+        if (s <= 0) return BoundingBox.INFINITE;
+        final double r = Math.max(Math.abs(height), Math.abs(cap)) / Math.sqrt(s);
+        return new BoundingBox(new Point3(m.x - r, m.y - r, zmin), new Point3(m.x + r, m.y + r, zmax));
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
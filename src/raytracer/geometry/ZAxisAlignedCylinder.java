@@ -52,19 +52,35 @@ public class ZAxisAlignedCylinder extends Geometry {
         if (d == 0) {
             double t = (-b) / (2 * a);
             if (t > Constants.EPSILON && m.z < r.at(t).z && r.at(t).z < (m.z + h))
-                return new Hit(t, r, this.material, normalAt(r, t), TextureUtils.getConeTexCoord(r, t, m, h));
+                return createHit(r, t);
         }
         if (d > 0) {
             double t1 = ((-b) + Math.sqrt(d)) / (2 * a);
             double t2 = ((-b) - Math.sqrt(d)) / (2 * a);
             boolean b1 = t1 > Constants.EPSILON && m.z <= r.at(t1).z && r.at(t1).z <= (m.z + h);
             boolean b2 = t2 > Constants.EPSILON && m.z <= r.at(t2).z && r.at(t2).z <= (m.z + h);
-            if ((b1 && !b2) || (b1 && b2 && t1 < t2)) return new Hit(t1, r, this.material, normalAt(r, t1), TextureUtils.getConeTexCoord(r, t1, m, h));
-            if ((!b1 && b2) || (b1 && b2 && t1 > t2)) return new Hit(t2, r, this.material, normalAt(r, t2), TextureUtils.getConeTexCoord(r, t2, m, h));
+            if ((b1 && !b2) || (b1 && b2 && t1 < t2)) return createHit(r, t1);
+            if ((!b1 && b2) || (b1 && b2 && t1 > t2)) return createHit(r, t2);
         }
         return null;
     }
 
+    /**
+     * This method creates the hit at the given t. The texture coordinate u runs once around the axis and v along
+     * the height, which gives the footprint of the ray cone in texture coordinates.
+     *
+     * @param r The ray.
+     * @param t The t of the intersection.
+     * @return The hit.
+     */
+    private Hit createHit(final Ray r, final double t) {
+        final Normal3 normal = normalAt(r, t);
+        final Point3 p = r.at(t);
+        final double footprint = TextureUtils.footprint(r, t, normal);
+        final double around = 2 * Math.PI * Math.sqrt((p.x - m.x) * (p.x - m.x) + (p.y - m.y) * (p.y - m.y));
+        return new Hit(t, r, this.material, normal, TextureUtils.getConeTexCoord(r, t, m, h), footprint / around, footprint / h);
+    }
+
     /**
      * This method takes a ray and a double t and calculates the hitpoint and returns the normal of that point.
      *
@@ -80,6 +96,12 @@ public class ZAxisAlignedCylinder extends Geometry {
     }
 
 
+    @Override
+    public BoundingBox bounds() {
+        final double r = Math.abs(radius);
+        return new BoundingBox(new Point3(m.x - r, m.y - r, m.z), new Point3(m.x + r, m.y + r, m.z + h));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
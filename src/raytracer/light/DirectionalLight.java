@@ -36,11 +36,7 @@ public class DirectionalLight extends Light {
         if (point == null || world == null) throw new IllegalArgumentException("Parameters must not be null.");
         if (castsShadow) {
 
-            if (world.hit(new Ray(point.add(directionFrom(point).normalized().mul(Constants.EPSILON)), directionFrom(point))) == null) {
-                return true;
-            } else {
-                return false;
-            }
+            return !world.occluded(new Ray(point.add(directionFrom(point).normalized().mul(Constants.EPSILON)), directionFrom(point)), Double.POSITIVE_INFINITY);
         } else {
             return true;
         }
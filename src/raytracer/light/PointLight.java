@@ -1,8 +1,6 @@
 package raytracer.light;
 
-import raytracer.geometry.Hit;
 import raytracer.geometry.World;
-import raytracer.math.Constants;
 import raytracer.math.Point3;
 import raytracer.math.Ray;
 import raytracer.math.Vector3;
@@ -38,11 +36,7 @@ public class PointLight extends Light {
         if (castsShadow) {
             double tl = position.sub(point).magnitude / directionFrom(point).magnitude;
             Ray shadowray = new Ray(point, directionFrom(point));
-            Hit hitpoint = world.hit(shadowray);
-
-            if (hitpoint == null) return true;
-            else if (Constants.EPSILON < hitpoint.t && hitpoint.t < tl) return false;
-            else return true;
+            return !world.occluded(shadowray, tl);
         } else return true;
     }
 
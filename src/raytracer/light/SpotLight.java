@@ -1,8 +1,6 @@
 package raytracer.light;
 
-import raytracer.geometry.Hit;
 import raytracer.geometry.World;
-import raytracer.math.Constants;
 import raytracer.math.Point3;
 import raytracer.math.Ray;
 import raytracer.math.Vector3;
@@ -56,11 +54,9 @@ public class SpotLight extends Light {
         if (castsShadow) {
             double tl = position.sub(point).magnitude / directionFrom(point).magnitude;
 
+            if (!inLightCone) return false;
             Ray shadowray = new Ray(point, directionFrom(point));
-            Hit hitpoint = world.hit(shadowray);
-            if (hitpoint == null) return inLightCone;
-            if (Constants.EPSILON < hitpoint.t && hitpoint.t < tl) return false;
-            else return inLightCone;
+            return !world.occluded(shadowray, tl);
         }
         return inLightCone;
     }
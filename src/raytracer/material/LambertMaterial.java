@@ -36,7 +36,7 @@ public class LambertMaterial extends Material {
     public Color colorFor(final Hit hit, final World world, final Tracer tracer) {
         if (hit == null || world == null) throw new IllegalArgumentException("Parameters must not be null.");
         List<Light> lights = world.getLights();
-        Color color = texture.getColor(hit.coord);
+        Color color = texture.getColor(hit.coord, hit.footprintU, hit.footprintV);
         Color c = color.mul(world.ambientColor);
         for (Light light : lights) {
             Point3 hitpoint = hit.ray.at(hit.t);
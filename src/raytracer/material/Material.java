@@ -20,4 +20,27 @@ public abstract class Material {
      * @return Color of the Point of the Hit.
      */
     public abstract Color colorFor(final Hit hit, final World world, final Tracer tracer);
+
+    /**
+     * This method returns the color of a hit without the mirror reflection, which the Tracer adds itself.
+     * Materials that do not reflect return their colorFor.
+     *
+     * @param hit    The hit.
+     * @param world  The world with the lights.
+     * @param tracer The tracer of the reflections.
+     * @return Color of the Point of the Hit without the reflection.
+     */
+    public Color directColorFor(final Hit hit, final World world, final Tracer tracer) {
+        return colorFor(hit, world, tracer);
+    }
+
+    /**
+     * This method returns how much of the mirror reflection is seen at a hit, per color channel.
+     *
+     * @param hit The hit.
+     * @return The factor of the reflection or null if the material does not reflect.
+     */
+    public Color reflectionFor(final Hit hit) {
+        return null;
+    }
 }
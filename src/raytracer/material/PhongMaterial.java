@@ -47,8 +47,8 @@ public class PhongMaterial extends Material {
     public Color colorFor(final Hit hit, final World world, final Tracer tracer) {
         if (hit == null || world == null) throw new IllegalArgumentException("Parameters must not be null.");
         List<Light> lights = world.getLights();
-        Color diffuse = diffuseTexture.getColor(hit.coord);
-        Color specular = specularTexture.getColor(hit.coord);
+        Color diffuse = diffuseTexture.getColor(hit.coord, hit.footprintU, hit.footprintV);
+        Color specular = specularTexture.getColor(hit.coord, hit.footprintU, hit.footprintV);
         Color c = diffuse.mul(world.ambientColor);
 
         for (Light light : lights) {
@@ -55,17 +55,23 @@ public class ReflectiveMaterial extends Material {
     public Color colorFor(final Hit hit, final World world, final Tracer tracer) {
         if (hit == null || world == null || tracer == null)
             throw new IllegalArgumentException("Parameters must not be null");
+        // the tracer follows the reflections in a loop and adds the direct color of each hit
+        return tracer.colorFor(hit, world);
+    }
+
+    @Override
+    public Color directColorFor(final Hit hit, final World world, final Tracer tracer) {
+        if (hit == null || world == null)
+            throw new IllegalArgumentException("Parameters must not be null");
 
-        Color diffuse = diffuseTexture.getColor(hit.coord);
-        Color specular = specularTexture.getColor(hit.coord);
-        Color reflection = reflectionTexture.getColor(hit.coord);
+        Color diffuse = diffuseTexture.getColor(hit.coord, hit.footprintU, hit.footprintV);
+        Color specular = specularTexture.getColor(hit.coord, hit.footprintU, hit.footprintV);
 
         Normal3 n = hit.normal;
         Vector3 d = hit.ray.d;
-        Vector3 rd = d.add(n.mul(d.invert().dot(n)).mul(2));
         Point3 hitPoint = hit.ray.at(hit.t);
 
-        Color c = diffuse.mul(world.ambientColor).add(reflection.mul(tracer.tracing(hitPoint, rd, world)));
+        Color c = diffuse.mul(world.ambientColor);
 
         List<Light> lights = world.getLights();
         for (Light light : lights) {
@@ -84,6 +90,12 @@ public class ReflectiveMaterial extends Material {
         return c;
     }
 
+    @Override
+    public Color reflectionFor(final Hit hit) {
+        if (hit == null) throw new IllegalArgumentException("Hit must not be null.");
+        return reflectionTexture.getColor(hit.coord, hit.footprintU, hit.footprintV);
+    }
+
     @Override
     public String toString() {
         return "ReflectiveMaterial{" +
@@ -2,21 +2,51 @@ package raytracer.material;
 
 import raytracer.geometry.Hit;
 import raytracer.geometry.World;
+import raytracer.math.Normal3;
 import raytracer.math.Point3;
 import raytracer.math.Ray;
 import raytracer.math.Vector3;
+import raytracer.sampling.CounterRandom;
 import raytracer.texture.Color;
 
 /**
- * This tracer is a helper for the reflections.
+ * This tracer is a helper for the reflections. It follows a chain of mirror reflections in a loop instead of
+ * recursing through the materials: the direct color of each hit is added, weighted by the product of the
+ * reflection factors on the way there (the throughput). The chain ends when nothing more is reflected, when the
+ * depth is used up, when the throughput falls below a threshold, or optionally by Russian roulette.
  *
  * @author Steven Sobkowski & Marie Hennings & Oliver Kniejski
  */
 public class Tracer {
+    /**
+     * The default throughput below which a chain of reflections ends, well below one step of an 8 bit color.
+     */
+    public static final double MIN_CONTRIBUTION = 1e-3;
+    /**
+     * The throughput below which Russian roulette starts, if enabled.
+     */
+    private static final double ROULETTE_START = 0.25;
+
     /**
      * The counter for the depth (steps) of the reflection.
      */
     private int counter;
+    /**
+     * The throughput below which a chain of reflections ends.
+     */
+    private final double minContribution;
+    /**
+     * True if chains with a throughput below ROULETTE_START end at random, weighting the surviving ones up.
+     */
+    private final boolean russianRoulette;
+    /**
+     * The key of the random numbers of the Russian roulette.
+     */
+    private final long randomKey;
+    /**
+     * The number of random numbers used so far.
+     */
+    private long randomCount;
 
     /**
      * This constructor sets the reflection depth.
@@ -24,11 +54,40 @@ public class Tracer {
      * @param counter The reflection steps.
      */
     public Tracer(final int counter) {
+        this(counter, MIN_CONTRIBUTION, false);
+    }
+
+    /**
+     * This constructor sets the reflection depth and the termination of weak reflections.
+     *
+     * @param counter         The reflection steps.
+     * @param minContribution The throughput below which a chain of reflections ends, 0 to follow it to the depth.
+     * @param russianRoulette True to end weak chains at random without bias.
+     */
+    public Tracer(final int counter, final double minContribution, final boolean russianRoulette) {
+        this(counter, minContribution, russianRoulette, 0);
+    }
+
+    /**
+     * This constructor sets the reflection depth, the termination of weak reflections and the random numbers of the
+     * Russian roulette. Renders give every camera ray its own key, e.g. from CounterRandom.key, so the roulette does
+     * not depend on the order the rays are traced in.
+     *
+     * @param counter         The reflection steps.
+     * @param minContribution The throughput below which a chain of reflections ends, 0 to follow it to the depth.
+     * @param russianRoulette True to end weak chains at random without bias.
+     * @param randomKey       The key of the random numbers of the roulette.
+     */
+    public Tracer(final int counter, final double minContribution, final boolean russianRoulette, final long randomKey) {
+        if (minContribution < 0) throw new IllegalArgumentException("Contribution must not be negative.");
         this.counter = counter;
+        this.minContribution = minContribution;
+        this.russianRoulette = russianRoulette;
+        this.randomKey = randomKey;
     }
 
     /**
-     * This method returns the color for the reflecting material recursively.
+     * This method returns the color seen along a reflected ray.
      *
      * @param origin    The current point on the reflecting surface.
      * @param direction The direction of the reflected ray.
@@ -36,15 +95,87 @@ public class Tracer {
      * @return Color for the reflection.
      */
     public Color tracing(final Point3 origin, final Vector3 direction, final World world) {
+        return tracing(origin, direction, world, 0, 0);
+    }
+
+    /**
+     * This method returns the color seen along a reflected ray, following a ray cone.
+     *
+     * @param origin     The current point on the reflecting surface.
+     * @param direction  The direction of the reflected ray.
+     * @param world      The world.
+     * @param coneWidth  The width of the ray cone at the origin.
+     * @param coneSpread The growth of the width of the ray cone per unit of distance.
+     * @return Color for the reflection.
+     */
+    public Color tracing(final Point3 origin, final Vector3 direction, final World world, final double coneWidth, final double coneSpread) {
         if (origin == null || direction == null || world == null)
             throw new IllegalArgumentException("Parameters must not be null.");
         if (counter < 0) return world.backgroundColor;
         counter--;
 
-        Hit hit = world.hit(new Ray(origin, direction.normalized()));
+        Hit hit = world.hit(new Ray(origin, direction.normalized(), coneWidth, coneSpread));
 
         if (hit == null) return world.backgroundColor;
-        return hit.material.colorFor(hit, world, this);
+        return colorFor(hit, world);
+    }
+
+    /**
+     * This method returns the color of a hit including all reflections seen from it.
+     *
+     * @param hit   The hit.
+     * @param world The world.
+     * @return The color.
+     */
+    public Color colorFor(final Hit hit, final World world) {
+        if (hit == null || world == null) throw new IllegalArgumentException("Parameters must not be null.");
+        double r = 0, g = 0, b = 0;
+        double tr = 1, tg = 1, tb = 1;
+        Hit current = hit;
+        while (true) {
+            final Material material = current.material;
+            final Color direct = material.directColorFor(current, world, this);
+            if (direct != null) {
+                r += tr * direct.r;
+                g += tg * direct.g;
+                b += tb * direct.b;
+            }
+
+            final Color reflection = material.reflectionFor(current);
+            if (reflection == null) break;
+            tr *= reflection.r;
+            tg *= reflection.g;
+            tb *= reflection.b;
+            final double throughput = Math.max(tr, Math.max(tg, tb));
+            if (!(throughput >= minContribution) || throughput == 0) break;
+            if (russianRoulette && throughput < ROULETTE_START) {
+                final double survival = throughput / ROULETTE_START;
+                if (CounterRandom.nextDouble(randomKey, randomCount++) >= survival) break;
+                tr /= survival;
+                tg /= survival;
+                tb /= survival;
+            }
+
+            final Hit next;
+            if (counter < 0) {
+                next = null;
+            } else {
+                counter--;
+                final Normal3 n = current.normal;
+                final Vector3 d = current.ray.d;
+                final Vector3 rd = d.add(n.mul(d.invert().dot(n)).mul(2));
+                next = world.hit(new Ray(current.ray.at(current.t), rd.normalized(),
+                        current.ray.coneWidthAt(current.t), current.ray.coneSpread));
+            }
+            if (next == null) {
+                r += tr * world.backgroundColor.r;
+                g += tg * world.backgroundColor.g;
+                b += tb * world.backgroundColor.b;
+                break;
+            }
+            current = next;
+        }
+        return new Color(r, g, b);
     }
 
     @Override
@@ -54,18 +185,25 @@ public class Tracer {
 
         Tracer tracer = (Tracer) o;
 
-        return counter == tracer.counter;
+        return counter == tracer.counter && Double.compare(minContribution, tracer.minContribution) == 0
+                && russianRoulette == tracer.russianRoulette;
     }
 
     @Override
     public int hashCode() {
-        return counter;
+        int result = counter;
+        long temp = Double.doubleToLongBits(minContribution);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + (russianRoulette ? 1 : 0);
+        return result;
     }
 
     @Override
     public String toString() {
         return "Tracer{" +
                 "counter=" + counter +
+                ", minContribution=" + minContribution +
+                ", russianRoulette=" + russianRoulette +
                 '}';
     }
 }
@@ -17,15 +17,42 @@ public class Ray {
     public final Vector3 d;
 
     /**
-     * This constructor creates a ray with the given point and vector.
+     * The width of the ray cone at the origin, in multiples of the length of d. 0 for an infinitely thin ray.
+     */
+    public final double coneWidth;
+
+    /**
+     * The growth of the width of the ray cone per unit of t, in multiples of the length of d.
+     * As both cone values are relative to d, they stay valid when the ray is transformed.
+     */
+    public final double coneSpread;
+
+    /**
+     * This constructor creates an infinitely thin ray with the given point and vector.
      *
      * @param o the point
      * @param d the vector
      */
     public Ray(final Point3 o, final Vector3 d) {
+        this(o, d, 0, 0);
+    }
+
+    /**
+     * This constructor creates a ray with the given point and vector that stands for a cone of rays, e.g. the
+     * rays through a pixel. The width of the cone is used to filter textures.
+     *
+     * @param o          the point
+     * @param d          the vector
+     * @param coneWidth  the width of the cone at the origin, in multiples of the length of d
+     * @param coneSpread the growth of the width per unit of t, in multiples of the length of d
+     */
+    public Ray(final Point3 o, final Vector3 d, final double coneWidth, final double coneSpread) {
         if (o == null || d == null) throw new IllegalArgumentException("Parameters must not be null.");
+        if (coneWidth < 0 || coneSpread < 0) throw new IllegalArgumentException("Cone must not be negative.");
         this.o = o;
         this.d = d;
+        this.coneWidth = coneWidth;
+        this.coneSpread = coneSpread;
     }
 
     /**
@@ -49,6 +76,17 @@ public class Ray {
         return o.sub(p).magnitude / d.magnitude;
     }
 
+    /**
+     * This method calculates the width of the ray cone at the factor t.
+     *
+     * @param t the factor
+     * @return the width in the units of the coordinate system of the ray, 0 for an infinitely thin ray
+     */
+    public final double coneWidthAt(final double t) {
+        if (coneWidth == 0 && coneSpread == 0) return 0;
+        return (coneWidth + coneSpread * t) * d.magnitude;
+    }
+
     @Override
     public boolean equals(final Object o1) {
         if (this == o1) return true;
@@ -56,7 +94,8 @@ public class Ray {
 
         Ray ray = (Ray) o1;
 
-        return o.equals(ray.o) && d.equals(ray.d);
+        return o.equals(ray.o) && d.equals(ray.d)
+                && Double.compare(coneWidth, ray.coneWidth) == 0 && Double.compare(coneSpread, ray.coneSpread) == 0;
 
     }
 
@@ -72,6 +111,8 @@ public class Ray {
         return "Ray{" +
                 "o=" + o +
                 ", d=" + d +
+                ", coneWidth=" + coneWidth +
+                ", coneSpread=" + coneSpread +
                 '}';
     }
 }
@@ -119,7 +119,7 @@ public class Transform {
      */
     public Ray mul(final Ray ray) {
 
-        return new Ray(i.mul(ray.o), i.mul(ray.d));
+        return new Ray(i.mul(ray.o), i.mul(ray.d), ray.coneWidth, ray.coneSpread);
     }
 
     @Override
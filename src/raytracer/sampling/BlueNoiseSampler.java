@@ -0,0 +1,182 @@
+package raytracer.sampling;
+
+import java.util.Random;
+
+/**
+ * This class samples pixels with the Sobol sequence, shifted per pixel by the values of a blue noise mask. The
+ * points within a pixel are as well distributed as in the SobolSampler, but the errors of neighbouring pixels differ
+ * as much as possible, so the remaining noise is fine grained and hardly visible at low sample counts.
+ * <p>
+ * The masks are tiled over the image. They are created with the void and cluster method when the first point is
+ * read, which takes a moment.
+ *
+ * @author TrayRacer Team
+ */
+public class BlueNoiseSampler extends Sampler {
+    /**
+     * The edge length of the masks in pixels. Must be a power of two.
+     */
+    public static final int MASK_SIZE = 64;
+    /**
+     * The standard deviation of the gaussian used to find clusters and voids, in pixels.
+     */
+    private static final double SIGMA = 1.5;
+
+    /**
+     * The position of this sampler's seed in the tiled masks, x and y.
+     */
+    private final int maskX, maskY;
+
+    /**
+     * This constructor creates the sampler.
+     *
+     * @param sampleCount The number of samples per pixel. Must be larger than 0.
+     * @param seed        The seed of the position of the masks.
+     */
+    public BlueNoiseSampler(final int sampleCount, final long seed) {
+        super(sampleCount, seed);
+        final int h = hash(0, 0, 2);
+        this.maskX = h & (MASK_SIZE - 1);
+        this.maskY = (h >>> 16) & (MASK_SIZE - 1);
+    }
+
+    /**
+     * This class holds the masks, so they are only created when they are first used.
+     */
+    private static class Masks {
+        /**
+         * The shift of the x-coordinates, a 32 bit fixed point number per pixel of the mask.
+         */
+        private static final int[] X = mask(1);
+        /**
+         * The shift of the y-coordinates, a 32 bit fixed point number per pixel of the mask.
+         */
+        private static final int[] Y = mask(2);
+    }
+
+    /**
+     * This method creates a blue noise mask with the void and cluster method: pixels are ranked by adding them one
+     * after another where they are least clustered, measured as the sum of a gaussian around all pixels added before.
+     * Each rank becomes an evenly spaced value from 0 to 1.
+     *
+     * @param seed The seed of the initial pattern.
+     * @return The mask, a 32 bit fixed point number per pixel, row by row.
+     */
+    private static int[] mask(final long seed) {
+        final int size = MASK_SIZE * MASK_SIZE;
+        final double[] kernel = new double[size];
+        for (int y = 0; y < MASK_SIZE; y++) {
+            for (int x = 0; x < MASK_SIZE; x++) {
+                final int dx = Math.min(x, MASK_SIZE - x), dy = Math.min(y, MASK_SIZE - y);
+                kernel[y * MASK_SIZE + x] = Math.exp(-(dx * dx + dy * dy) / (2 * SIGMA * SIGMA));
+            }
+        }
+
+        // a random initial pattern of about a tenth of the pixels, moved from clusters to voids until it is even, the
+        // number of moves is limited in case a pixel keeps moving back and forth
+        final boolean[] initial = new boolean[size];
+        final double[] initialEnergy = new double[size];
+        final Random random = new Random(seed);
+        int initialCount = 0;
+        while (initialCount < size / 10) {
+            final int pixel = random.nextInt(size);
+            if (initial[pixel]) continue;
+            initial[pixel] = true;
+            splat(initialEnergy, kernel, pixel, 1);
+            initialCount++;
+        }
+        for (int i = 0; i < size; i++) {
+            final int cluster = extreme(initialEnergy, initial, true, true);
+            initial[cluster] = false;
+            splat(initialEnergy, kernel, cluster, -1);
+            final int gap = extreme(initialEnergy, initial, false, false);
+            initial[gap] = true;
+            splat(initialEnergy, kernel, gap, 1);
+            if (gap == cluster) break;
+        }
+
+        final int[] rank = new int[size];
+        // the pixels of the initial pattern get the low ranks, the tightest cluster the highest of them
+        boolean[] pattern = initial.clone();
+        double[] energy = initialEnergy.clone();
+        for (int count = initialCount; count > 0; count--) {
+            final int cluster = extreme(energy, pattern, true, true);
+            pattern[cluster] = false;
+            splat(energy, kernel, cluster, -1);
+            rank[cluster] = count - 1;
+        }
+        // all other pixels are ranked by filling the largest void
+        pattern = initial;
+        energy = initialEnergy;
+        for (int count = initialCount; count < size; count++) {
+            final int gap = extreme(energy, pattern, false, false);
+            pattern[gap] = true;
+            splat(energy, kernel, gap, 1);
+            rank[gap] = count;
+        }
+
+        final int[] mask = new int[size];
+        for (int i = 0; i < size; i++) {
+            mask[i] = (int) ((((long) rank[i] << 32) + (1L << 31)) / size);
+        }
+        return mask;
+    }
+
+    /**
+     * This method adds or removes the gaussian around a pixel to or from the energy of all pixels.
+     *
+     * @param energy The energy of the pixels.
+     * @param kernel The gaussian around pixel 0, wrapping around at the borders.
+     * @param pixel  The pixel.
+     * @param sign   1 to add, -1 to remove.
+     */
+    private static void splat(final double[] energy, final double[] kernel, final int pixel, final int sign) {
+        final int px = pixel % MASK_SIZE, py = pixel / MASK_SIZE;
+        for (int y = 0; y < MASK_SIZE; y++) {
+            final int row = ((y - py) & (MASK_SIZE - 1)) * MASK_SIZE;
+            for (int x = 0; x < MASK_SIZE; x++) {
+                energy[y * MASK_SIZE + x] += sign * kernel[row + ((x - px) & (MASK_SIZE - 1))];
+            }
+        }
+    }
+
+    /**
+     * This method finds the pixel with the highest or lowest energy among the set or unset pixels.
+     *
+     * @param energy  The energy of the pixels.
+     * @param pattern The set pixels.
+     * @param set     True to search the set pixels, false for the unset ones.
+     * @param highest True for the highest energy, false for the lowest.
+     * @return The pixel.
+     */
+    private static int extreme(final double[] energy, final boolean[] pattern, final boolean set, final boolean highest) {
+        int found = -1;
+        for (int i = 0; i < energy.length; i++) {
+            if (pattern[i] != set) continue;
+            if (found < 0 || (highest ? energy[i] > energy[found] : energy[i] < energy[found])) found = i;
+        }
+        return found;
+    }
+
+    /**
+     * This method returns the index of a pixel in the masks.
+     *
+     * @param x The x-coordinate of the pixel.
+     * @param y The y-coordinate of the pixel.
+     * @return The index in the masks.
+     */
+    private int maskIndex(final int x, final int y) {
+        return ((y + maskY) & (MASK_SIZE - 1)) * MASK_SIZE + ((x + maskX) & (MASK_SIZE - 1));
+    }
+
+    @Override
+    public double getX(final int x, final int y, final int sample) {
+        // the fixed point numbers wrap around at 1 by themselves
+        return offset(SobolSampler.point(sample, 0) + Masks.X[maskIndex(x, y)]);
+    }
+
+    @Override
+    public double getY(final int x, final int y, final int sample) {
+        return offset(SobolSampler.point(sample, 1) + Masks.Y[maskIndex(x, y)]);
+    }
+}
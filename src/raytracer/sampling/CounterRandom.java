@@ -0,0 +1,113 @@
+package raytracer.sampling;
+
+/**
+ * This class creates random numbers that depend only on a key and a counter, like the SplittableRandom generator
+ * jumping straight to the counter. A key is derived from a seed and e.g. the pixel and sample, so every ray gets
+ * its own stream of numbers and a render gives the same image no matter which thread renders which pixel when.
+ * Nothing is shared between threads, nothing is allocated.
+ *
+ * @author TrayRacer Team
+ */
+public final class CounterRandom {
+    /**
+     * The increment of the counter, the golden ratio as 64 bit fixed point number, as in SplittableRandom.
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * This class is not meant to be instantiated.
+     */
+    private CounterRandom() {
+    }
+
+    /**
+     * This method mixes 64 bits so that every input bit changes about half of the output bits, the finalizer of
+     * SplittableRandom.
+     *
+     * @param z The bits.
+     * @return The mixed bits.
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * This method derives the key of a stream from a seed and three numbers, e.g. the pixel and the sample.
+     *
+     * @param seed The seed of the render.
+     * @param a    The first number.
+     * @param b    The second number.
+     * @param c    The third number.
+     * @return The key.
+     */
+    public static long key(final long seed, final int a, final int b, final int c) {
+        return mix(mix(mix(seed + GOLDEN_GAMMA * (a + 1L)) + GOLDEN_GAMMA * (b + 1L)) + GOLDEN_GAMMA * (c + 1L));
+    }
+
+    /**
+     * This method returns the random bits at a position of a stream.
+     *
+     * @param key   The key of the stream.
+     * @param index The position in the stream.
+     * @return The random bits.
+     */
+    public static long nextLong(final long key, final long index) {
+        return mix(key + GOLDEN_GAMMA * (index + 1));
+    }
+
+    /**
+     * This method returns the random number at a position of a stream.
+     *
+     * @param key   The key of the stream.
+     * @param index The position in the stream.
+     * @return The number, from 0 to 1.
+     */
+    public static double nextDouble(final long key, final long index) {
+        return (nextLong(key, index) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * This method returns the position of an index in a random permutation of 0 to length - 1, without creating the
+     * permutation. It is the hash based permutation by Kensler, Correlated Multi-Jittered Sampling.
+     *
+     * @param index  The index, from 0 to length - 1.
+     * @param length The number of permuted indices. Must be larger than 0.
+     * @param key    The key choosing the permutation.
+     * @return The position, from 0 to length - 1.
+     */
+    public static int permute(final int index, final int length, final long key) {
+        if (length <= 0) throw new IllegalArgumentException("Length must be larger than 0.");
+        final int p = (int) (key ^ (key >>> 32));
+        int w = length - 1;
+        w |= w >>> 1;
+        w |= w >>> 2;
+        w |= w >>> 4;
+        w |= w >>> 8;
+        w |= w >>> 16;
+        int i = index;
+        // indices beyond the length are permuted again until they fall into it
+        do {
+            i ^= p;
+            i *= 0xe170893d;
+            i ^= p >>> 16;
+            i ^= (i & w) >>> 4;
+            i ^= p >>> 8;
+            i *= 0x0929eb3f;
+            i ^= p >>> 23;
+            i ^= (i & w) >>> 1;
+            i *= 1 | p >>> 27;
+            i *= 0x6935fa69;
+            i ^= (i & w) >>> 11;
+            i *= 0x74dcb303;
+            i ^= (i & w) >>> 2;
+            i *= 0x9e501cc3;
+            i ^= (i & w) >>> 2;
+            i *= 0xc860a3df;
+            i &= w;
+            i ^= i >>> 5;
+        } while (Integer.compareUnsigned(i, length) >= 0);
+        return Integer.remainderUnsigned(i + p, length);
+    }
+}
@@ -0,0 +1,77 @@
+package raytracer.sampling;
+
+/**
+ * This class samples pixels with the Halton sequence in the bases 2 and 3. Each pixel shifts the sequence by its own
+ * random offset, wrapping around at the borders of the pixel, so neighbouring pixels do not repeat the same pattern.
+ *
+ * @author TrayRacer Team
+ */
+public class HaltonSampler extends Sampler {
+    /**
+     * The points of the sequence, x and y for each, from 0 to 1.
+     */
+    private static final double[] TABLE = table();
+
+    /**
+     * This constructor creates the sampler.
+     *
+     * @param sampleCount The number of samples per pixel. Must be larger than 0.
+     * @param seed        The seed of the offsets.
+     */
+    public HaltonSampler(final int sampleCount, final long seed) {
+        super(sampleCount, seed);
+    }
+
+    /**
+     * This method computes the table.
+     *
+     * @return The points, x and y for each.
+     */
+    private static double[] table() {
+        final double[] table = new double[2 * TABLE_SIZE];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            table[2 * i] = radicalInverse(i, 2);
+            table[2 * i + 1] = radicalInverse(i, 3);
+        }
+        return table;
+    }
+
+    /**
+     * This method mirrors the digits of a number at the decimal point.
+     *
+     * @param i    The number.
+     * @param base The base of the digits.
+     * @return The mirrored number, from 0 to 1.
+     */
+    private static double radicalInverse(final int i, final int base) {
+        double result = 0;
+        double digit = 1.0 / base;
+        for (int n = i; n > 0; n /= base) {
+            result += (n % base) * digit;
+            digit /= base;
+        }
+        return result;
+    }
+
+    /**
+     * This method shifts a value from 0 to 1, wrapping around at 1.
+     *
+     * @param value The value.
+     * @param shift The bits of the shift, read as a fixed point number from 0 to 1.
+     * @return The offset of the shifted value from the center of the pixel.
+     */
+    private static double shift(final double value, final int shift) {
+        final double shifted = value + (shift & 0xFFFFFFFFL) * 0x1.0p-32;
+        return (shifted < 1 ? shifted : shifted - 1) - 0.5;
+    }
+
+    @Override
+    public double getX(final int x, final int y, final int sample) {
+        return shift(TABLE[2 * (sample & (TABLE_SIZE - 1))], hash(x, y, 0));
+    }
+
+    @Override
+    public double getY(final int x, final int y, final int sample) {
+        return shift(TABLE[2 * (sample & (TABLE_SIZE - 1)) + 1], hash(x, y, 1));
+    }
+}
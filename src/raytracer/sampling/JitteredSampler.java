@@ -0,0 +1,36 @@
+package raytracer.sampling;
+
+/**
+ * This class samples pixels with jittered points in shuffled strata: the pixel is cut into as many rows and columns
+ * as there are samples, each sample gets its own row and a column of a random permutation, and is placed at a random
+ * position within its cell. The permutation and the positions are drawn from CounterRandom streams of the pixel, so
+ * the points only depend on the seed and the pixel, not on the thread rendering it.
+ *
+ * @author TrayRacer Team
+ */
+public class JitteredSampler extends Sampler {
+    /**
+     * This constructor creates the sampler.
+     *
+     * @param sampleCount The number of samples per pixel. Must be larger than 0.
+     * @param seed        The seed of the random numbers.
+     */
+    public JitteredSampler(final int sampleCount, final long seed) {
+        super(sampleCount, seed);
+    }
+
+    @Override
+    public double getX(final int x, final int y, final int sample) {
+        final int stratum = sample % sampleCount;
+        // later passes use new permutations and positions
+        final int pass = sample / sampleCount;
+        final int column = CounterRandom.permute(stratum, sampleCount, CounterRandom.key(seed, x, y, -1 - pass));
+        return (column + CounterRandom.nextDouble(CounterRandom.key(seed, x, y, sample), 0)) / sampleCount - 0.5;
+    }
+
+    @Override
+    public double getY(final int x, final int y, final int sample) {
+        final int stratum = sample % sampleCount;
+        return (stratum + CounterRandom.nextDouble(CounterRandom.key(seed, x, y, sample), 1)) / sampleCount - 0.5;
+    }
+}
@@ -0,0 +1,90 @@
+package raytracer.sampling;
+
+/**
+ * This class is the base of the samplers. The points of a pixel are read from a precomputed table shared by all
+ * pixels and scrambled per pixel, or drawn from random streams of the pixel, so neighbouring pixels do not repeat the
+ * same pattern. A point is found by pixel, sample index and seed alone, nothing is allocated and nothing is shared
+ * between the render threads except the read-only tables.
+ * <p>
+ * The sample index may be larger than the sample count, e.g. for more samples in later passes. The sequences are
+ * continued up to the size of their tables and repeat after that.
+ *
+ * @author TrayRacer Team
+ */
+public abstract class Sampler {
+    /**
+     * The number of points of the sequences stored in the tables.
+     */
+    public static final int TABLE_SIZE = 1 << 12;
+
+    /**
+     * The number of samples per pixel.
+     */
+    public final int sampleCount;
+    /**
+     * The seed of the scrambling or the random numbers.
+     */
+    public final long seed;
+
+    /**
+     * This constructor creates the sampler.
+     *
+     * @param sampleCount The number of samples per pixel. Must be larger than 0.
+     * @param seed        The seed of the scrambling or the random numbers. Samplers with equal seeds create equal points.
+     */
+    protected Sampler(final int sampleCount, final long seed) {
+        if (sampleCount <= 0) throw new IllegalArgumentException("Sample count must be larger than 0.");
+        this.sampleCount = sampleCount;
+        this.seed = seed;
+    }
+
+    /**
+     * This method returns the horizontal offset of a sample from the center of its pixel.
+     *
+     * @param x      The x-coordinate of the pixel.
+     * @param y      The y-coordinate of the pixel.
+     * @param sample The index of the sample. Must not be negative.
+     * @return The offset, from -0.5 to 0.5.
+     */
+    public abstract double getX(final int x, final int y, final int sample);
+
+    /**
+     * This method returns the vertical offset of a sample from the center of its pixel.
+     *
+     * @param x      The x-coordinate of the pixel.
+     * @param y      The y-coordinate of the pixel.
+     * @param sample The index of the sample. Must not be negative.
+     * @return The offset, from -0.5 to 0.5.
+     */
+    public abstract double getY(final int x, final int y, final int sample);
+
+    /**
+     * This method mixes the pixel, the seed and a number for the purpose into well distributed 32 bits.
+     *
+     * @param x       The x-coordinate of the pixel.
+     * @param y       The y-coordinate of the pixel.
+     * @param purpose A different number for every use, e.g. for each dimension.
+     * @return The hash.
+     */
+    protected final int hash(final int x, final int y, final int purpose) {
+        return (int) CounterRandom.key(seed, x, y, purpose);
+    }
+
+    /**
+     * This method turns 32 bits into an offset within a pixel.
+     *
+     * @param bits The bits, read as an unsigned fixed point number from 0 to 1.
+     * @return The offset, from -0.5 to 0.5.
+     */
+    protected static double offset(final int bits) {
+        return (bits & 0xFFFFFFFFL) * 0x1.0p-32 - 0.5;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "sampleCount=" + sampleCount +
+                ", seed=" + seed +
+                '}';
+    }
+}
@@ -2,9 +2,9 @@ package raytracer.sampling;
 
 import raytracer.math.Point2;
 
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class represents a sampling pattern for anti-aliasing and depth of field camera effect.
@@ -13,17 +13,29 @@ import java.util.List;
  */
 public class SamplingPattern {
     /**
-     * The list of point2's for non-random sampling patterns.
+     * The seeds of unseeded random patterns, so patterns created at the same time still differ.
+     */
+    private static final AtomicLong UNSEEDED = new AtomicLong(System.nanoTime());
+    /**
+     * The list of point2's, for patterns with a sampler those of the first pixel.
      */
     private final List<Point2> points;
     /**
-     * Sets the randomization of Points on every getPoints().
+     * True if the points are random, drawn anew for every pixel.
      */
     public final boolean isRandom;
     /**
      * The number of Points in this sampling pattern.
      */
     public final int numberOfPoints;
+    /**
+     * The sampler creating the points of each pixel, null for patterns with the same points for every pixel.
+     */
+    public final Sampler sampler;
+    /**
+     * The points as an array, x and y for each, so a point is found by its index.
+     */
+    private final double[] offsets;
 
     /**
      * This standard constructor creates a sampling pattern with a single point in the center.
@@ -33,6 +45,8 @@ public class SamplingPattern {
         points.add(new Point2(0, 0));
         isRandom = false;
         this.numberOfPoints = 1;
+        this.sampler = null;
+        this.offsets = offsets(points);
     }
 
     /**
@@ -45,19 +59,27 @@ public class SamplingPattern {
         this.points = points;
         isRandom = false;
         this.numberOfPoints = points.size();
+        this.sampler = null;
+        this.offsets = offsets(points);
     }
 
     /**
-     * This constructor is intended for random sampling patterns with a fixed number of points.
+     * This constructor creates a pattern whose points differ per pixel and are read from the sampler. The list of
+     * points holds the points of the first pixel, for users that do not know the pixel.
      *
-     * @param random         Sets the randomization of Points on every getPoints().
-     * @param numberOfPoints The number of points.
+     * @param sampler The sampler.
+     * @param random  True if the points are random.
      */
-    private SamplingPattern(final boolean random, final int numberOfPoints) {
-        if (numberOfPoints < 2) throw new IllegalArgumentException("numberOfPoints must be larger than one.");
+    private SamplingPattern(final Sampler sampler, final boolean random) {
+        if (sampler == null) throw new IllegalArgumentException("Sampler must not be null.");
         this.points = new LinkedList<>();
+        for (int i = 0; i < sampler.sampleCount; i++) {
+            points.add(new Point2(sampler.getX(0, 0, i), sampler.getY(0, 0, i)));
+        }
         this.isRandom = random;
-        this.numberOfPoints = numberOfPoints;
+        this.numberOfPoints = sampler.sampleCount;
+        this.sampler = sampler;
+        this.offsets = offsets(points);
     }
 
     /**
@@ -73,13 +95,59 @@ public class SamplingPattern {
     }
 
     /**
-     * This method creates a new random sampling pattern.
+     * This method creates a new random sampling pattern. Its points change with every render.
      *
      * @param i The number of points.
      * @return The random samplingPattern.
      */
     public SamplingPattern randomPattern(final int i) {
-        return new SamplingPattern(true, i);
+        return randomPattern(i, CounterRandom.mix(UNSEEDED.incrementAndGet()));
+    }
+
+    /**
+     * This method creates a new random sampling pattern with reproducible points. The points of a pixel only depend
+     * on the seed and the pixel, see JitteredSampler.
+     *
+     * @param i    The number of points.
+     * @param seed The seed.
+     * @return The random samplingPattern.
+     */
+    public SamplingPattern randomPattern(final int i, final long seed) {
+        if (i < 2) throw new IllegalArgumentException("numberOfPoints must be larger than one.");
+        return new SamplingPattern(new JitteredSampler(i, seed), true);
+    }
+
+    /**
+     * This method creates a new sampling pattern with points from the scrambled Sobol sequence.
+     *
+     * @param i    The number of points.
+     * @param seed The seed of the scrambling.
+     * @return The Sobol samplingPattern.
+     */
+    public SamplingPattern sobolPattern(final int i, final long seed) {
+        return new SamplingPattern(new SobolSampler(i, seed), false);
+    }
+
+    /**
+     * This method creates a new sampling pattern with points from the shifted Halton sequence.
+     *
+     * @param i    The number of points.
+     * @param seed The seed of the shifts.
+     * @return The Halton samplingPattern.
+     */
+    public SamplingPattern haltonPattern(final int i, final long seed) {
+        return new SamplingPattern(new HaltonSampler(i, seed), false);
+    }
+
+    /**
+     * This method creates a new sampling pattern with points from the Sobol sequence shifted by blue noise.
+     *
+     * @param i    The number of points.
+     * @param seed The seed of the position of the blue noise.
+     * @return The blue noise samplingPattern.
+     */
+    public SamplingPattern blueNoisePattern(final int i, final long seed) {
+        return new SamplingPattern(new BlueNoiseSampler(i, seed), false);
     }
 
     /**
@@ -100,13 +168,57 @@ public class SamplingPattern {
     }
 
     /**
-     * The getter for the Point list.
+     * The getter for the Point list. Patterns with a sampler return the points of the first pixel, their points for
+     * other pixels are read from the sampler.
      *
      * @return The point list.
      */
     public List<Point2> getPoints() {
-        if (!isRandom) return points;
-        return randomPoints();
+        return points;
+    }
+
+    /**
+     * This method returns the horizontal offset of a sample from the center of a pixel. Patterns without a sampler
+     * have the same points for every pixel and repeat them for indices beyond their number of points.
+     *
+     * @param x      The x-coordinate of the pixel.
+     * @param y      The y-coordinate of the pixel.
+     * @param sample The index of the sample. Must not be negative.
+     * @return The offset, from -0.5 to 0.5.
+     */
+    public double getX(final int x, final int y, final int sample) {
+        if (sampler != null) return sampler.getX(x, y, sample);
+        return offsets[2 * (sample % numberOfPoints)];
+    }
+
+    /**
+     * This method returns the vertical offset of a sample from the center of a pixel. Patterns without a sampler
+     * have the same points for every pixel and repeat them for indices beyond their number of points.
+     *
+     * @param x      The x-coordinate of the pixel.
+     * @param y      The y-coordinate of the pixel.
+     * @param sample The index of the sample. Must not be negative.
+     * @return The offset, from -0.5 to 0.5.
+     */
+    public double getY(final int x, final int y, final int sample) {
+        if (sampler != null) return sampler.getY(x, y, sample);
+        return offsets[2 * (sample % numberOfPoints) + 1];
+    }
+
+    /**
+     * This method copies points into an array.
+     *
+     * @param points The points.
+     * @return The points, x and y for each.
+     */
+    private static double[] offsets(final List<Point2> points) {
+        final double[] offsets = new double[2 * points.size()];
+        int i = 0;
+        for (Point2 point : points) {
+            offsets[i++] = point.x;
+            offsets[i++] = point.y;
+        }
+        return offsets;
     }
 
     /**
@@ -142,44 +254,15 @@ public class SamplingPattern {
         return newPoints;
     }
 
-    /**
-     * This method creates random points for the getter of randomPattern.
-     *
-     * @return
-     */
-    private List<Point2> randomPoints() {
-        double distance = 1.0 / numberOfPoints;
-        LinkedList<Double> xInit = new LinkedList<>();
-        LinkedList<Double> yInit = new LinkedList<>();
-
-        double pos = distance / 2.0 - 0.5;
-
-        for (int i = 0; i < numberOfPoints; i++) {
-            xInit.add(pos);
-            yInit.add(pos);
-            pos += distance;
-        }
-
-        //shuffle columns
-        Collections.shuffle(xInit);
-
-        List<Point2> randomPoints = new LinkedList<>();
-
-        for (int i = 0; i < numberOfPoints; i++) {
-            double randomX = Math.random() * distance - distance / 2.0;
-            double randomY = Math.random() * distance - distance / 2.0;
-            randomPoints.add(new Point2(xInit.get(i) + randomX, yInit.get(i) + randomY));
-        }
-        return randomPoints;
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         SamplingPattern that = (SamplingPattern) o;
         return isRandom == that.isRandom && numberOfPoints == that.numberOfPoints
-                && !(points != null ? !points.equals(that.points) : that.points != null);
+                && !(points != null ? !points.equals(that.points) : that.points != null)
+                && (sampler != null ? that.sampler != null && sampler.getClass() == that.sampler.getClass()
+                && sampler.seed == that.sampler.seed : that.sampler == null);
     }
 
     @Override
@@ -196,6 +279,7 @@ public class SamplingPattern {
                 "points=" + points +
                 ", isRandom=" + isRandom +
                 ", numberOfPoints=" + numberOfPoints +
+                ", sampler=" + sampler +
                 '}';
     }
 }
@@ -0,0 +1,88 @@
+package raytracer.sampling;
+
+/**
+ * This class samples pixels with the first two dimensions of the Sobol sequence, scrambled per pixel with a hash
+ * based Owen scrambling. The scrambling keeps the stratification of the sequence: every power of two of samples
+ * covers the pixel evenly, while the patterns of neighbouring pixels are independent.
+ *
+ * @author TrayRacer Team
+ */
+public class SobolSampler extends Sampler {
+    /**
+     * The points of the sequence as 32 bit fixed point numbers, x and y for each.
+     */
+    private static final int[] TABLE = table();
+
+    /**
+     * This constructor creates the sampler.
+     *
+     * @param sampleCount The number of samples per pixel. Must be larger than 0.
+     * @param seed        The seed of the scrambling.
+     */
+    public SobolSampler(final int sampleCount, final long seed) {
+        super(sampleCount, seed);
+    }
+
+    /**
+     * This method computes the table. The first dimension is the van der Corput sequence, the second one uses the
+     * direction numbers of the polynomial x + 1.
+     *
+     * @return The points, x and y for each.
+     */
+    private static int[] table() {
+        final int[] directions = new int[32];
+        directions[0] = 1 << 31;
+        for (int i = 1; i < directions.length; i++) {
+            directions[i] = directions[i - 1] ^ (directions[i - 1] >>> 1);
+        }
+        final int[] table = new int[2 * TABLE_SIZE];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            int y = 0;
+            for (int bit = 0; (i >>> bit) != 0; bit++) {
+                if (((i >>> bit) & 1) != 0) y ^= directions[bit];
+            }
+            table[2 * i] = Integer.reverse(i);
+            table[2 * i + 1] = y;
+        }
+        return table;
+    }
+
+    /**
+     * This method scrambles the bits of a point like a nested uniform scrambling: every bit is flipped depending on a
+     * hash of the bits above it, so the stratification is kept.
+     *
+     * @param bits     The bits of the point.
+     * @param scramble The seed of the scrambling.
+     * @return The scrambled bits.
+     */
+    static int owenScramble(final int bits, final int scramble) {
+        int v = Integer.reverse(bits);
+        v += scramble;
+        v ^= v * 0x6c50b47c;
+        v ^= v * 0xb82f1e52;
+        v ^= v * 0xc7afe638;
+        v ^= v * 0x8d22f6e6;
+        return Integer.reverse(v);
+    }
+
+    /**
+     * This method returns the unscrambled bits of a point of the sequence.
+     *
+     * @param sample    The index of the point.
+     * @param dimension 0 for x, 1 for y.
+     * @return The bits of the point.
+     */
+    static int point(final int sample, final int dimension) {
+        return TABLE[2 * (sample & (TABLE_SIZE - 1)) + dimension];
+    }
+
+    @Override
+    public double getX(final int x, final int y, final int sample) {
+        return offset(owenScramble(point(sample, 0), hash(x, y, 0)));
+    }
+
+    @Override
+    public double getY(final int x, final int y, final int sample) {
+        return offset(owenScramble(point(sample, 1), hash(x, y, 1)));
+    }
+}
@@ -0,0 +1,45 @@
+package raytracer.scene;
+
+import raytracer.camera.PerspectiveCamera;
+import raytracer.geometry.Plane;
+import raytracer.geometry.ShapeFromFile;
+import raytracer.geometry.World;
+import raytracer.light.PointLight;
+import raytracer.material.LambertMaterial;
+import raytracer.material.PhongMaterial;
+import raytracer.math.Normal3;
+import raytracer.math.Point3;
+import raytracer.math.Vector3;
+import raytracer.texture.Color;
+import raytracer.texture.SingleColorTexture;
+import raytracer.ui.RenderSettings;
+
+import java.io.File;
+
+/**
+ * This is a scene with the Stanford bunny from models/bunny.obj standing on a plane, framed like an opened obj file.
+ *
+ * @author TrayRacer Team
+ */
+public class Bunny extends RtScene {
+    /**
+     * The path of the bunny model.
+     */
+    public static final String MODEL = System.getProperty("user.dir") + "/models/bunny.obj";
+
+    public Bunny() {
+        this(RenderSettings.defaults());
+    }
+
+    public Bunny(final RenderSettings settings) {
+        ShapeFromFile bunny = new ShapeFromFile(new File(MODEL), new PhongMaterial(new SingleColorTexture(new Color(1, 1, 0)), new SingleColorTexture(new Color(1, 1, 1)), 64));
+        Vector3 middle = new Vector3(bunny.boundingBox.lbf.x, bunny.boundingBox.lbf.y, bunny.boundingBox.lbf.z).mul(0.5).add(new Vector3(bunny.boundingBox.run.x, bunny.boundingBox.run.y, bunny.boundingBox.run.z).mul(0.5));
+        double size = bunny.boundingBox.lbf.sub(bunny.boundingBox.run).magnitude;
+
+        cam = new PerspectiveCamera(new Point3(size, size, size), new Vector3(middle.x - size, middle.y - size, middle.z - size), new Vector3(0, 1, 0), Math.PI / 4, settings.getSamplingPattern());
+        world = new World(new Color(0.1, 0.1, 0.1), new Color(0.3, 0.3, 0.3));
+        world.addGeometry(bunny);
+        world.addGeometry(new Plane(new Point3(0, bunny.boundingBox.lbf.y, 0), new Normal3(0, 1, 0), new LambertMaterial(new SingleColorTexture(new Color(0.6, 0.6, 0.6)))));
+        world.addLight(new PointLight(new Color(0.5, 0.5, 0.5), new Point3(size, size, size / 2), true));
+    }
+}
@@ -12,7 +12,7 @@ import raytracer.texture.Color;
 import raytracer.texture.ImageTexture;
 import raytracer.texture.SingleColorTexture;
 import raytracer.texture.TextureStock;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
 
 /**
  * A festive scene with 3 cones, 4 spheres, 2 triangles, 4 boxes and a cylinder.
@@ -21,7 +21,11 @@ import raytracer.ui.GlobalConfig;
  */
 public class Cone extends RtScene {
     public Cone() {
-        cam = new PerspectiveCamera(new Point3(9, 0, 1.5), new Vector3(-1, 0, 0), new Vector3(0, 0, 1), Math.PI / 4, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        this(RenderSettings.defaults());
+    }
+
+    public Cone(final RenderSettings settings) {
+        cam = new PerspectiveCamera(new Point3(9, 0, 1.5), new Vector3(-1, 0, 0), new Vector3(0, 0, 1), Math.PI / 4, settings.getSamplingPattern());
         world = new World(new Color(0, 0, 0), new Color(0.2, 0.2, 0.2));
         // Planes
         world.addGeometry(new Plane(new Point3(0, 0, -1), new Normal3(0, 0, 1), new LambertMaterial(new ImageTexture(TextureStock.XMAS_CARPET)), 5));
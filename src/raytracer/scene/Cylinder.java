@@ -8,7 +8,7 @@ import raytracer.math.Point3;
 import raytracer.math.Vector3;
 import raytracer.texture.Color;
 import raytracer.texture.SingleColorTexture;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
 
 /**
  * This method creates a greek test scene with some cylinders n stuff.
@@ -17,7 +17,11 @@ import raytracer.ui.GlobalConfig;
  */
 public class Cylinder extends RtScene {
     public Cylinder() {
-        cam = new PerspectiveCamera(new Point3(35, 0, 1), new Vector3(-30, 0, 1), new Vector3(0, 0, 1), Math.PI / 4, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        this(RenderSettings.defaults());
+    }
+
+    public Cylinder(final RenderSettings settings) {
+        cam = new PerspectiveCamera(new Point3(35, 0, 1), new Vector3(-30, 0, 1), new Vector3(0, 0, 1), Math.PI / 4, settings.getSamplingPattern());
         world = new World(new Color(0.2, 0.2, 0.2), new Color(0.2, 0.2, 0.2));
 
         // Roof
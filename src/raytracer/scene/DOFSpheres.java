@@ -15,7 +15,7 @@ import raytracer.texture.Color;
 import raytracer.texture.InterpolatedImageTexture;
 import raytracer.texture.SingleColorTexture;
 import raytracer.texture.TextureStock;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
 
 /**
  * This class represents demo-scene No. 2 for exercise 4.
@@ -24,9 +24,13 @@ import raytracer.ui.GlobalConfig;
  */
 public class DOFSpheres extends RtScene {
     public DOFSpheres() {
+        this(RenderSettings.defaults());
+    }
+
+    public DOFSpheres(final RenderSettings settings) {
         double dist = new Point3(0, 1, 0).sub(new Point3(8, 8, 8)).magnitude;
         System.out.println("dist = " + dist);
-        cam = new FocusCamera(new Point3(8, 8, 8), new Vector3(-1, -1, -1), new Vector3(0, 1, 0), Math.PI / 4, dist, 0.5, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        cam = new FocusCamera(new Point3(8, 8, 8), new Vector3(-1, -1, -1), new Vector3(0, 1, 0), Math.PI / 4, dist, 0.5, settings.getSamplingPattern());
         world = new World(new Color(0, 0, 0), new Color(0.25, 0.25, 0.25));
 
         world.addLight(new PointLight(new Color(1, 1, 1), new Point3(8, 8, 8), false));
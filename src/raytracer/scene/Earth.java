@@ -13,7 +13,7 @@ import raytracer.math.Point3;
 import raytracer.math.Vector3;
 import raytracer.sampling.SamplingPattern;
 import raytracer.texture.*;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
 
 /**
  * This class represents the earth scene for texture demo.
@@ -22,7 +22,11 @@ import raytracer.ui.GlobalConfig;
  */
 public class Earth extends RtScene {
     public Earth() {
-        cam = new PerspectiveCamera(new Point3(0, -15, 0), new Vector3(0, 1, 0), new Vector3(0, 0, 1), Math.PI / 4, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        this(RenderSettings.defaults());
+    }
+
+    public Earth(final RenderSettings settings) {
+        cam = new PerspectiveCamera(new Point3(0, -15, 0), new Vector3(0, 1, 0), new Vector3(0, 0, 1), Math.PI / 4, settings.getSamplingPattern());
         world = new World(new Color(0, 0, 0), new Color(0.05, 0.05, 0.05));
 
         world.addLight(new PointLight(new Color(1.5, 1.5, 1.5), new Point3(15, -4, 3), false));
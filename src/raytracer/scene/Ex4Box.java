@@ -15,7 +15,7 @@ import raytracer.math.Vector3;
 import raytracer.sampling.SamplingPattern;
 import raytracer.texture.Color;
 import raytracer.texture.SingleColorTexture;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
 
 /**
  * This class represents demo-scene No. 1 for exercise 4.
@@ -24,7 +24,11 @@ import raytracer.ui.GlobalConfig;
  */
 public class Ex4Box extends RtScene {
     public Ex4Box() {
-        cam = new PerspectiveCamera(new Point3(8, 8, 8), new Vector3(-1, -1, -1), new Vector3(0, 1, 0), Math.PI / 4, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        this(RenderSettings.defaults());
+    }
+
+    public Ex4Box(final RenderSettings settings) {
+        cam = new PerspectiveCamera(new Point3(8, 8, 8), new Vector3(-1, -1, -1), new Vector3(0, 1, 0), Math.PI / 4, settings.getSamplingPattern());
         world = new World(new Color(0, 0, 0), new Color(0, 0, 0));
 
         world.addLight(new PointLight(new Color(1, 1, 1), new Point3(8, 8, 0), true));
@@ -11,7 +11,7 @@ import raytracer.math.Point3;
 import raytracer.math.Vector3;
 import raytracer.texture.Color;
 import raytracer.texture.SingleColorTexture;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
 
 /**
  * This class represents demo-scene No. 2 for exercise 4.
@@ -20,7 +20,11 @@ import raytracer.ui.GlobalConfig;
  */
 public class Ex4Spheres extends RtScene {
     public Ex4Spheres() {
-        cam = new PerspectiveCamera(new Point3(8, 8, 8), new Vector3(-1, -1, -1), new Vector3(0, 1, 0), Math.PI / 4, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        this(RenderSettings.defaults());
+    }
+
+    public Ex4Spheres(final RenderSettings settings) {
+        cam = new PerspectiveCamera(new Point3(8, 8, 8), new Vector3(-1, -1, -1), new Vector3(0, 1, 0), Math.PI / 4, settings.getSamplingPattern());
         world = new World(new Color(0, 0, 0), new Color(0.25, 0.25, 0.25));
 
         world.addLight(new PointLight(new Color(1, 1, 1), new Point3(8, 8, 8), false));
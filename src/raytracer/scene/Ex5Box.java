@@ -10,7 +10,7 @@ import raytracer.math.Transform;
 import raytracer.math.Vector3;
 import raytracer.texture.Color;
 import raytracer.texture.SingleColorTexture;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -22,7 +22,11 @@ import java.util.List;
  */
 public class Ex5Box extends RtScene {
     public Ex5Box() {
-        cam = new PerspectiveCamera(new Point3(0, 0, 5), new Vector3(0, 0, -1), new Vector3(0, 1, 0), Math.PI / 4, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        this(RenderSettings.defaults());
+    }
+
+    public Ex5Box(final RenderSettings settings) {
+        cam = new PerspectiveCamera(new Point3(0, 0, 5), new Vector3(0, 0, -1), new Vector3(0, 1, 0), Math.PI / 4, settings.getSamplingPattern());
         world = new World(new Color(0, 0, 0), new Color(0.1, 0.1, 0.1));
         AxisAlignedBox box = new AxisAlignedBox(new PhongMaterial(new SingleColorTexture(new Color(1, 1, 0)), new SingleColorTexture(new Color(1, 1, 1)), 64));
         List<Geometry> oneBox = new LinkedList<>();
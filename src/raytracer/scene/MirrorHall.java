@@ -12,7 +12,7 @@ import raytracer.math.Point3;
 import raytracer.math.Vector3;
 import raytracer.texture.Color;
 import raytracer.texture.SingleColorTexture;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
 
 /**
  * A reflective scene containing a reflective scene containing a reflective scene containing ...
@@ -21,7 +21,11 @@ import raytracer.ui.GlobalConfig;
  */
 public class MirrorHall extends RtScene {
     public MirrorHall() {
-        cam = new PerspectiveCamera(new Point3(9.9, 2, 3), new Vector3(-1, 0.1, 0), new Vector3(0, 0, 1), Math.PI / 4, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        this(RenderSettings.defaults());
+    }
+
+    public MirrorHall(final RenderSettings settings) {
+        cam = new PerspectiveCamera(new Point3(9.9, 2, 3), new Vector3(-1, 0.1, 0), new Vector3(0, 0, 1), Math.PI / 4, settings.getSamplingPattern());
         world = new World(new Color(0, 0, 0.2), new Color(0.1, 0.1, 0.1));
         Material mirror = new ReflectiveMaterial(new SingleColorTexture(new Color(0.01, 0.05, 0.01)), new SingleColorTexture(new Color(0, 0, 0)), 64, new SingleColorTexture(new Color(1, 1, 1)));
         world.addGeometry(new AxisAlignedBox(new Point3(0, 0, 0), new Point3(0.2, 30, 20), mirror));
@@ -13,7 +13,9 @@ import raytracer.math.Point3;
 import raytracer.math.Vector3;
 import raytracer.texture.Color;
 import raytracer.texture.SingleColorTexture;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
+
+import java.util.Random;
 
 /**
  * This is a test scene with 400 evenly distributed boxes with ordered base height and random top height and a sphere.
@@ -22,7 +24,33 @@ import raytracer.ui.GlobalConfig;
  */
 public class OkCity extends RtScene {
     public OkCity() {
-        cam = new PerspectiveCamera(new Point3(-9, -9, 15), new Vector3(15, 15, -10), new Vector3(0, 0, 1), Math.PI /4, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        this(RenderSettings.defaults());
+    }
+
+    public OkCity(final RenderSettings settings) {
+        this(new Random(), settings);
+    }
+
+    /**
+     * This constructor creates the city with the top heights drawn from the given random numbers, so a seeded
+     * generator always creates the same city.
+     *
+     * @param random The random numbers.
+     */
+    public OkCity(final Random random) {
+        this(random, RenderSettings.defaults());
+    }
+
+    /**
+     * This constructor creates the city with the top heights drawn from the given random numbers, so a seeded
+     * generator always creates the same city.
+     *
+     * @param random   The random numbers.
+     * @param settings The settings of the render job.
+     */
+    public OkCity(final Random random, final RenderSettings settings) {
+        if (random == null || settings == null) throw new IllegalArgumentException("Parameters must not be null.");
+        cam = new PerspectiveCamera(new Point3(-9, -9, 15), new Vector3(15, 15, -10), new Vector3(0, 0, 1), Math.PI /4, settings.getSamplingPattern());
         world = new World(new Color(0, 0, 0), new Color(0.1, 0.1, 0.1));
         world.addLight(new DirectionalLight(new Color(0.1, 0.1, 0.1), new Vector3(-1,2,-7), true));
         world.addLight(new PointLight(new Color(0.4, 0, 0), new Point3(-0.25, -0.25, 12), true));
@@ -32,7 +60,7 @@ public class OkCity extends RtScene {
 
         for (int y = -10; y < 10; y++){
             for (int x = -10; x < 10; x++){
-                world.addGeometry(new AxisAlignedBox(new Point3(x, y, 0), new Point3(x + 0.5, y + 0.5, Math.random() * Math.max(Math.abs(x), Math.abs(y))/2 + Math.max(Math.abs(x), Math.abs(y)) + 0.001), new PhongMaterial(new SingleColorTexture(new Color(0.8, 0.8, 0.8)), new SingleColorTexture(new Color(1, 1, 1)), 64)));
+                world.addGeometry(new AxisAlignedBox(new Point3(x, y, 0), new Point3(x + 0.5, y + 0.5, random.nextDouble() * Math.max(Math.abs(x), Math.abs(y))/2 + Math.max(Math.abs(x), Math.abs(y)) + 0.001), new PhongMaterial(new SingleColorTexture(new Color(0.8, 0.8, 0.8)), new SingleColorTexture(new Color(1, 1, 1)), 64)));
             }
         }
     }
@@ -12,7 +12,7 @@ import raytracer.math.Vector3;
 import raytracer.texture.Color;
 import raytracer.texture.ImageTexture;
 import raytracer.texture.TextureStock;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
 
 import java.util.Arrays;
 import java.util.LinkedList;
@@ -23,7 +23,11 @@ import java.util.List;
  */
 public class OkFlower extends RtScene {
     public OkFlower() {
-        cam = new PerspectiveCamera(new Point3(0, 0, -10), new Vector3(0, 0, 10), new Vector3(0, 1, 0), Math.PI /4, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        this(RenderSettings.defaults());
+    }
+
+    public OkFlower(final RenderSettings settings) {
+        cam = new PerspectiveCamera(new Point3(0, 0, -10), new Vector3(0, 0, 10), new Vector3(0, 1, 0), Math.PI /4, settings.getSamplingPattern());
         world = new World(new Color(0, 0, 0), new Color(0.1, 0.1, 0.1));
 
         Sphere mittelKugel = new Sphere(new LambertMaterial(new ImageTexture(TextureStock.CHRISTMAS_BALL)));
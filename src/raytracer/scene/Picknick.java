@@ -10,7 +10,7 @@ import raytracer.math.Normal3;
 import raytracer.math.Point3;
 import raytracer.math.Vector3;
 import raytracer.texture.*;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
 
 /**
  * This is a scene with all the primitive geometries and some light.
@@ -19,7 +19,11 @@ import raytracer.ui.GlobalConfig;
  */
 public class Picknick extends RtScene {
     public Picknick() {
-        cam = new PerspectiveCamera(new Point3(10, 5, 10), new Vector3(-10, -5, -8), new Vector3(0, 0, 1), Math.PI / 4, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        this(RenderSettings.defaults());
+    }
+
+    public Picknick(final RenderSettings settings) {
+        cam = new PerspectiveCamera(new Point3(10, 5, 10), new Vector3(-10, -5, -8), new Vector3(0, 0, 1), Math.PI / 4, settings.getSamplingPattern());
         world = new World(new Color(0, 0, 0), new Color(0.5, 0.5, 0.5));
 
         world.addGeometry(new Plane(new Point3(0, 0, -0.5), new Normal3(0, 0, 1), new PhongMaterial(new InterpolatedImageTexture(TextureStock.LAWN),new SingleColorTexture( new Color(1, 1, 1)), 64), 4));
@@ -10,7 +10,7 @@ import raytracer.math.Point3;
 import raytracer.math.Vector3;
 import raytracer.texture.Color;
 import raytracer.texture.SingleColorTexture;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
 
 /**
  * This method creates a test scene for the stereoscopic camera.
@@ -19,7 +19,11 @@ import raytracer.ui.GlobalConfig;
  */
 public class StereoTest extends RtScene {
     public StereoTest() {
-        cam = new StereoCamera(new Point3(25, 20, 40), new Vector3(-25, -17, -40), new Vector3(0, 1, 0), Math.PI / 3.3, 6, true, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        this(RenderSettings.defaults());
+    }
+
+    public StereoTest(final RenderSettings settings) {
+        cam = new StereoCamera(new Point3(25, 20, 40), new Vector3(-25, -17, -40), new Vector3(0, 1, 0), Math.PI / 3.3, 6, true, settings.getSamplingPattern());
         world = new World(new Color(0, 0, 0), new Color(0.2, 0.2, 0.2));
         world.addLight(new PointLight(new Color(0.6, 0.6, 0.6), new Point3(20, 40, 40), true));
 
@@ -10,7 +10,7 @@ import raytracer.math.Point3;
 import raytracer.math.Vector3;
 import raytracer.texture.Color;
 import raytracer.texture.SingleColorTexture;
-import raytracer.ui.GlobalConfig;
+import raytracer.ui.RenderSettings;
 
 /**
  * A scene with a torus.
@@ -19,7 +19,11 @@ import raytracer.ui.GlobalConfig;
  */
 public class Torus extends RtScene {
     public Torus() {
-        cam = new PerspectiveCamera(new Point3(10, 10, 10), new Vector3(-1, -1, -1), new Vector3(0, 0, 1), Math.PI / 4, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+        this(RenderSettings.defaults());
+    }
+
+    public Torus(final RenderSettings settings) {
+        cam = new PerspectiveCamera(new Point3(10, 10, 10), new Vector3(-1, -1, -1), new Vector3(0, 0, 1), Math.PI / 4, settings.getSamplingPattern());
 //        cam = new StereoCamera(new Point3(10, 10, 10), new Vector3(-1, -1, -1), new Vector3(0, 0, 1), Math.PI / 4, 2, true);
 
         world = new World(new Color(0, 0, 0), new Color(0.2, 0.2, 0.2));
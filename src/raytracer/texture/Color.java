@@ -43,12 +43,12 @@ public class Color {
     }
 
     /**
-     * This constructor creates a color from a given fx color
+     * This constructor creates a color from a packed rgb value as returned by getRGB. The alpha value is ignored.
      *
-     * @param clr the fx color to convert
+     * @param rgb The packed rgb value with 8 bits per component.
      */
-    public Color(final javafx.scene.paint.Color clr) {
-        this(clr.getRed(),clr.getGreen(),clr.getBlue());
+    public Color(final int rgb) {
+        this(((rgb >> 16) & 0xFF) / 255.0, ((rgb >> 8) & 0xFF) / 255.0, (rgb & 0xFF) / 255.0);
     }
 
     /**
@@ -1,11 +1,5 @@
 package raytracer.texture;
 
-import javafx.scene.image.Image;
-
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.nio.file.Path;
-
 /**
  * This class represents an image texture.
  *
@@ -13,31 +7,32 @@ import java.nio.file.Path;
  */
 public class ImageTexture implements Texture {
     /**
-     * The image for the texture.
+     * The decoded pixels of the image for the texture.
+     */
+    public final TexelImage image;
+    /**
+     * The levels of the image for lookups with a footprint.
      */
-    public final Image image;
+    public final MipMap mipMap;
 
     /**
-     * The constructor creates an image from a given path.
+     * The constructor creates an image from a given path. The image is decoded only once for all textures of the
+     * same path as long as it stays in the TextureCache.
      *
      * @param path The path of the image.
      */
     public ImageTexture(final String path) {
-        if (path == null) throw new IllegalArgumentException("Parameters must not be null!");
-
-        image = new Image("file:" + path);
-
-        if (image.isError()) {
-            throw new IllegalArgumentException("Path must be an image!");
-        }
+        mipMap = TextureCache.get(path);
+        image = mipMap.getLevel(0);
     }
 
     @Override
     public Color getColor(final TexCoord2 coord2) {
-        if (coord2 == null) throw new IllegalArgumentException("TexCoord2 must not be null!");
-        int x = (int) ((image.getWidth() - 1) - (image.getWidth() - 1) * coord2.u);
-        int y = (int) ((image.getHeight() - 1) - (image.getHeight() - 1) * coord2.v);
+        return image.nearest(coord2);
+    }
 
-        return new Color(image.getPixelReader().getColor(x, y));
+    @Override
+    public Color getColor(final TexCoord2 coord2, final double footprintU, final double footprintV) {
+        return mipMap.sample(coord2, footprintU, footprintV, false);
     }
 }
@@ -0,0 +1,90 @@
+package raytracer.texture;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds a texture image together with copies of half, quarter, ... its size down to a single pixel.
+ * Lookups choose the level whose pixels match the footprint of the ray cone, so distant surfaces read small levels
+ * that are already filtered instead of aliasing on the full image.
+ *
+ * @author TrayRacer Team
+ */
+public class MipMap {
+    /**
+     * The levels, the full image first.
+     */
+    private final TexelImage[] levels;
+
+    /**
+     * This constructor builds the levels of the given image.
+     *
+     * @param image The full image.
+     */
+    public MipMap(final TexelImage image) {
+        if (image == null) throw new IllegalArgumentException("Image must not be null.");
+        final List<TexelImage> list = new ArrayList<>();
+        TexelImage level = image;
+        list.add(level);
+        while (level.width > 1 || level.height > 1) {
+            level = level.downsample();
+            list.add(level);
+        }
+        levels = list.toArray(new TexelImage[list.size()]);
+    }
+
+    /**
+     * This method returns the number of levels.
+     *
+     * @return The number of levels.
+     */
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    /**
+     * This method returns a level.
+     *
+     * @param level The index of the level, 0 for the full image.
+     * @return The level.
+     */
+    public TexelImage getLevel(final int level) {
+        return levels[level];
+    }
+
+    /**
+     * This method returns the memory taken by the pixels of all levels.
+     *
+     * @return The number of bytes.
+     */
+    public long getByteCount() {
+        long bytes = 0;
+        for (final TexelImage level : levels) bytes += 4L * level.width * level.height;
+        return bytes;
+    }
+
+    /**
+     * This method returns the color at the texture coordinates for a ray cone with the given footprint.
+     * If a pixel of the full image covers the footprint, the full image is sampled, nearest or bilinear.
+     * Otherwise the two levels around the footprint are sampled bilinearly and interpolated (trilinear).
+     *
+     * @param coord2      The texture coordinates.
+     * @param footprintU  The width of the footprint along u.
+     * @param footprintV  The width of the footprint along v.
+     * @param interpolate True to sample the full image bilinearly, false to take the nearest pixel.
+     * @return The color.
+     */
+    public Color sample(final TexCoord2 coord2, final double footprintU, final double footprintV, final boolean interpolate) {
+        final TexelImage full = levels[0];
+        final double texels = Math.max(footprintU * full.width, footprintV * full.height);
+        if (!(texels > 1)) return interpolate ? full.bilinear(coord2) : full.nearest(coord2);
+
+        final double lod = Math.log(texels) / Math.log(2);
+        if (lod >= levels.length - 1) return levels[levels.length - 1].bilinear(coord2);
+        final int level = (int) lod;
+        final double f = lod - level;
+        final Color c0 = levels[level].bilinear(coord2);
+        final Color c1 = levels[level + 1].bilinear(coord2);
+        return new Color(c0.r * (1 - f) + c1.r * f, c0.g * (1 - f) + c1.g * f, c0.b * (1 - f) + c1.b * f);
+    }
+}
@@ -0,0 +1,180 @@
+package raytracer.texture;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This class holds the pixels of a texture image, decoded once into packed rgb values, and samples them.
+ * The samplers only read the array and create the resulting Color, so they allocate nothing else per lookup.
+ *
+ * @author TrayRacer Team
+ */
+public class TexelImage {
+    /**
+     * The width of the image.
+     */
+    public final int width;
+    /**
+     * The height of the image.
+     */
+    public final int height;
+    /**
+     * The packed rgb values with 8 bits per component, row by row from the top.
+     */
+    private final int[] texels;
+
+    /**
+     * This constructor decodes the image at the given path.
+     *
+     * @param path The path of the image.
+     */
+    public TexelImage(final String path) {
+        this(read(path));
+    }
+
+    /**
+     * This constructor decodes the given image.
+     *
+     * @param image The image.
+     */
+    public TexelImage(final BufferedImage image) {
+        if (image == null) throw new IllegalArgumentException("Image must not be null.");
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.texels = image.getRGB(0, 0, width, height, null, 0, width);
+    }
+
+    /**
+     * This constructor creates an image of already decoded pixels.
+     *
+     * @param width  The width of the image.
+     * @param height The height of the image.
+     * @param texels The packed rgb values, row by row from the top.
+     */
+    private TexelImage(final int width, final int height, final int[] texels) {
+        this.width = width;
+        this.height = height;
+        this.texels = texels;
+    }
+
+    /**
+     * This method creates an image of half the width and height, each pixel the average of 2x2 pixels of this one.
+     * A last odd row or column is left out.
+     *
+     * @return The smaller image or this one if it is a single pixel.
+     */
+    public TexelImage downsample() {
+        if (width == 1 && height == 1) return this;
+        final int w = Math.max(1, width / 2);
+        final int h = Math.max(1, height / 2);
+        final int[] smaller = new int[w * h];
+        for (int y = 0; y < h; y++) {
+            final int y0 = Math.min(2 * y, height - 1) * width;
+            final int y1 = Math.min(2 * y + 1, height - 1) * width;
+            for (int x = 0; x < w; x++) {
+                final int x0 = Math.min(2 * x, width - 1);
+                final int x1 = Math.min(2 * x + 1, width - 1);
+                final int p00 = texels[y0 + x0], p10 = texels[y0 + x1], p01 = texels[y1 + x0], p11 = texels[y1 + x1];
+                int rgb = 0;
+                for (int shift = 16; shift >= 0; shift -= 8) {
+                    final int sum = ((p00 >> shift) & 0xFF) + ((p10 >> shift) & 0xFF) + ((p01 >> shift) & 0xFF) + ((p11 >> shift) & 0xFF);
+                    rgb |= ((sum + 2) / 4) << shift;
+                }
+                smaller[y * w + x] = 0xFF000000 | rgb;
+            }
+        }
+        return new TexelImage(w, h, smaller);
+    }
+
+    /**
+     * This method reads an image file.
+     *
+     * @param path The path of the image.
+     * @return The image.
+     */
+    private static BufferedImage read(final String path) {
+        if (path == null) throw new IllegalArgumentException("Parameters must not be null!");
+        final BufferedImage image;
+        try {
+            image = ImageIO.read(new File(path));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Path must be an image!", e);
+        }
+        if (image == null) {
+            throw new IllegalArgumentException("Path must be an image!");
+        }
+        return image;
+    }
+
+    /**
+     * This method returns the packed rgb value of a pixel.
+     *
+     * @param x The x-coordinate of the pixel, from the left.
+     * @param y The y-coordinate of the pixel, from the top.
+     * @return The packed rgb value with 8 bits per component.
+     */
+    public int getRGB(final int x, final int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height)
+            throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+        return texels[y * width + x];
+    }
+
+    /**
+     * This method returns the color of the pixel nearest to the texture coordinates.
+     *
+     * @param coord2 The texture coordinates. (0, 0) is the lower right corner of the image, (1, 1) the upper left.
+     * @return The color.
+     */
+    public Color nearest(final TexCoord2 coord2) {
+        if (coord2 == null) throw new IllegalArgumentException("TexCoord2 must not be null!");
+        final int x = (int) ((width - 1) - (width - 1) * coord2.u);
+        final int y = (int) ((height - 1) - (height - 1) * coord2.v);
+        return new Color(getRGB(x, y));
+    }
+
+    /**
+     * This method returns the color at the texture coordinates, interpolated bilinearly between the 4 neighbouring
+     * pixels.
+     *
+     * @param coord2 The texture coordinates. (0, 0) is the lower right corner of the image, (1, 1) the upper left.
+     * @return The color.
+     */
+    public Color bilinear(final TexCoord2 coord2) {
+        if (coord2 == null) throw new IllegalArgumentException("TexCoord2 must not be null!");
+        final double x = (width - 1) - (width - 1) * coord2.u;
+        final double y = (height - 1) - (height - 1) * coord2.v;
+        final int x0 = (int) Math.floor(x);
+        final int y0 = (int) Math.floor(y);
+        final int x1 = (int) Math.ceil(x);
+        final int y1 = (int) Math.ceil(y);
+        final int p00 = getRGB(x0, y0);
+        final int p10 = getRGB(x1, y0);
+        final int p01 = getRGB(x0, y1);
+        final int p11 = getRGB(x1, y1);
+
+        final double dx = x - Math.floor(x);
+        final double dy = y - Math.floor(y);
+        return new Color(lerp(p00 >> 16, p10 >> 16, p01 >> 16, p11 >> 16, dx, dy),
+                lerp(p00 >> 8, p10 >> 8, p01 >> 8, p11 >> 8, dx, dy),
+                lerp(p00, p10, p01, p11, dx, dy));
+    }
+
+    /**
+     * This method interpolates one color component of 4 pixels bilinearly.
+     *
+     * @param c00 The component of the upper left pixel in the lowest 8 bits.
+     * @param c10 The component of the upper right pixel in the lowest 8 bits.
+     * @param c01 The component of the lower left pixel in the lowest 8 bits.
+     * @param c11 The component of the lower right pixel in the lowest 8 bits.
+     * @param dx  The horizontal weight of the right pixels.
+     * @param dy  The vertical weight of the lower pixels.
+     * @return The interpolated component between 0 and 1.
+     */
+    private static double lerp(final int c00, final int c10, final int c01, final int c11, final double dx, final double dy) {
+        final double q0 = ((c00 & 0xFF) / 255.0) * (1 - dx) + ((c10 & 0xFF) / 255.0) * dx;
+        final double q1 = ((c01 & 0xFF) / 255.0) * (1 - dx) + ((c11 & 0xFF) / 255.0) * dx;
+        return q0 * (1 - dy) + q1 * dy;
+    }
+}
@@ -14,4 +14,17 @@ public interface Texture {
      * @return the color of the texture at the given coords.
      */
     public Color getColor(final TexCoord2 coord2);
+
+    /**
+     * This method returns the color for the Texture, filtered over the footprint of a ray cone.
+     * Textures without a filter return the color at the coords.
+     *
+     * @param coord2     the TexCoords.
+     * @param footprintU the width of the footprint along u.
+     * @param footprintV the width of the footprint along v.
+     * @return the color of the texture at the given coords.
+     */
+    public default Color getColor(final TexCoord2 coord2, final double footprintU, final double footprintV) {
+        return getColor(coord2);
+    }
 }
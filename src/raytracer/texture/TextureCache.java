@@ -0,0 +1,207 @@
+package raytracer.texture;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * This class keeps the decoded images of the textures for the whole process, so every image file is decoded once no
+ * matter how many textures and scenes use it. The images are kept up to a memory budget, the least recently used
+ * ones are dropped first. Textures still holding a dropped image keep working, only a new texture decodes it again.
+ * <p>
+ * An image is decoded outside the lock by the first thread asking for it, later threads wait for that decoding
+ * instead of starting their own. The lock only guards the entries and the counts.
+ *
+ * @author TrayRacer Team
+ */
+public class TextureCache {
+    /**
+     * The memory budget in bytes, can be set with -Draytracer.textureCacheMB=n. Defaults to 256 MB.
+     */
+    public static final long BUDGET = Math.max(0, Long.getLong("raytracer.textureCacheMB", 256)) * 1024 * 1024;
+
+    /**
+     * The cached images by absolute path, the least recently used first.
+     */
+    private static final LinkedHashMap<String, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The memory taken by the cached images in bytes.
+     */
+    private static long bytes;
+
+    /**
+     * The number of lookups answered from the cache.
+     */
+    private static long hits;
+
+    /**
+     * The number of lookups that decoded an image.
+     */
+    private static long misses;
+
+    /**
+     * This class is not meant to be instantiated.
+     */
+    private TextureCache() {
+    }
+
+    /**
+     * This method returns the decoded image of the given path, decoding it if it is not cached or if the file was
+     * changed since. If another thread is decoding the image, it waits for that thread.
+     *
+     * @param path The path of the image.
+     * @return The levels of the image.
+     */
+    public static MipMap get(final String path) {
+        if (path == null) throw new IllegalArgumentException("Parameters must not be null!");
+        final File file = new File(path).getAbsoluteFile();
+        final String key = file.getPath();
+        final long modified = file.lastModified();
+
+        final Entry entry;
+        final boolean loading;
+        synchronized (TextureCache.class) {
+            final Entry cached = ENTRIES.get(key);
+            if (cached != null && cached.modified == modified) {
+                hits++;
+                entry = cached;
+                loading = false;
+            } else {
+                if (cached != null) remove(key);
+                misses++;
+                entry = new Entry(new FutureTask<>(() -> new MipMap(new TexelImage(key))), modified);
+                ENTRIES.put(key, entry);
+                loading = true;
+            }
+        }
+
+        if (loading) entry.mipMap.run();
+        final MipMap mipMap;
+        try {
+            mipMap = entry.mipMap.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the image " + key + ".", e);
+        } catch (ExecutionException e) {
+            // a failed decoding is not cached, the next lookup tries again
+            synchronized (TextureCache.class) {
+                if (ENTRIES.get(key) == entry) remove(key);
+            }
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+
+        if (loading) {
+            synchronized (TextureCache.class) {
+                // the entry may have been dropped or replaced while it was decoded
+                if (ENTRIES.get(key) == entry) {
+                    entry.bytes = mipMap.getByteCount();
+                    bytes += entry.bytes;
+                    evict();
+                }
+            }
+        }
+        return mipMap;
+    }
+
+    /**
+     * This method drops the least recently used images until the cache fits its budget. The most recently used
+     * image is kept even if it alone exceeds the budget.
+     */
+    private static void evict() {
+        final Iterator<Map.Entry<String, Entry>> iterator = ENTRIES.entrySet().iterator();
+        while (bytes > BUDGET && ENTRIES.size() > 1) {
+            bytes -= iterator.next().getValue().bytes;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * This method drops an image.
+     *
+     * @param key The absolute path of the image.
+     */
+    private static void remove(final String key) {
+        final Entry entry = ENTRIES.remove(key);
+        if (entry != null) bytes -= entry.bytes;
+    }
+
+    /**
+     * This method drops all images.
+     */
+    public static synchronized void clear() {
+        ENTRIES.clear();
+        bytes = 0;
+    }
+
+    /**
+     * This method returns the number of cached images, including those being decoded.
+     *
+     * @return The number of images.
+     */
+    public static synchronized int size() {
+        return ENTRIES.size();
+    }
+
+    /**
+     * This method returns the memory taken by the cached images.
+     *
+     * @return The number of bytes.
+     */
+    public static synchronized long getByteCount() {
+        return bytes;
+    }
+
+    /**
+     * This method returns the number of lookups answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    public static synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * This method returns the number of lookups that decoded an image.
+     *
+     * @return The number of misses.
+     */
+    public static synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * This class is a cached image with the modification time of its file.
+     */
+    private static class Entry {
+        /**
+         * The decoding of the levels of the image, run by the thread that created the entry.
+         */
+        final FutureTask<MipMap> mipMap;
+        /**
+         * The modification time of the file when it was decoded.
+         */
+        final long modified;
+        /**
+         * The memory taken by the levels, 0 while they are decoded.
+         */
+        long bytes;
+
+        /**
+         * This constructor creates an entry.
+         *
+         * @param mipMap   The decoding of the levels of the image.
+         * @param modified The modification time of the file.
+         */
+        Entry(final FutureTask<MipMap> mipMap, final long modified) {
+            this.mipMap = mipMap;
+            this.modified = modified;
+        }
+    }
+}
@@ -10,6 +10,10 @@ import raytracer.math.Ray;
  * @author Marie Hennings
  */
 public class TextureUtils {
+    /**
+     * The smallest cosine between ray and surface used for the footprint. Limits the blur at grazing angles.
+     */
+    private static final double MIN_COS = 0.2;
 
     /**
      * This method calculates the texture coordinates of a plane.
@@ -51,4 +55,22 @@ public class TextureUtils {
 
         return new TexCoord2(u, v);
     }
+
+    /**
+     * This method calculates the width of the ray cone where it hits a surface, stretched by the angle between ray
+     * and surface. Multiplied with the change of a texture coordinate per unit of length on the surface it gives
+     * the footprint of the hit in that texture coordinate.
+     *
+     * @param ray    The ray.
+     * @param t      The t.
+     * @param normal The normal of the surface.
+     * @return The width in the units of the coordinate system of the ray, 0 for an infinitely thin ray.
+     */
+    public static double footprint(final Ray ray, final double t, final Normal3 normal) {
+        final double width = ray.coneWidthAt(t);
+        if (width == 0) return 0;
+        final double cos = Math.abs(normal.x * ray.d.x + normal.y * ray.d.y + normal.z * ray.d.z)
+                / Math.sqrt((normal.x * normal.x + normal.y * normal.y + normal.z * normal.z) * (ray.d.x * ray.d.x + ray.d.y * ray.d.y + ray.d.z * ray.d.z));
+        return width / (cos > MIN_COS ? cos : MIN_COS);
+    }
 }
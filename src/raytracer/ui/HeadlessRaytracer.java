@@ -0,0 +1,133 @@
+package raytracer.ui;
+
+import raytracer.scene.RtScene;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * This class renders a scene from the command line without starting a user interface and saves it as a png.
+ * <p>
+ * Usage: {@code HeadlessRaytracer <scene> [<width>x<height>] [<samples>] [<output.png>]}
+ * <p>
+ * The scene is the name of a RtScene subclass, either fully qualified or in the package raytracer.scene.
+ * The defaults are 640x480 pixels, the samples of the default RenderSettings and the scene name as file name. All
+ * other settings are read from the system properties or a properties file, see RenderSettings.
+ *
+ * @author TrayRacer Team
+ */
+public class HeadlessRaytracer {
+    /**
+     * The package searched for scene names without a package.
+     */
+    private static final String SCENE_PACKAGE = "raytracer.scene.";
+    /**
+     * The usage printed for wrong arguments.
+     */
+    private static final String USAGE = "Usage: HeadlessRaytracer <scene> [<width>x<height>] [<samples>] [<output.png>]";
+
+    /**
+     * Main method rendering the scene given by the arguments.
+     *
+     * @param args The scene, the resolution, the samples per pixel and the output path.
+     */
+    public static void main(final String[] args) {
+        if (args.length < 1 || args.length > 4) usage(null);
+        System.setProperty("java.awt.headless", "true");
+
+        final String sceneName = args[0];
+        int width = 640;
+        int height = 480;
+        if (args.length > 1) {
+            final String[] dimensions = args[1].toLowerCase().split("x");
+            if (dimensions.length != 2) usage("The resolution must be given as <width>x<height>.");
+            width = positive(dimensions[0], "width");
+            height = positive(dimensions[1], "height");
+        }
+        RenderSettings settings = RenderSettings.defaults().withThreads(Runtime.getRuntime().availableProcessors()).withLinear(true);
+        if (args.length > 2) settings = settings.withSamples(positive(args[2], "samples"));
+        final File output = new File(args.length > 3 ? args[3] : sceneName.substring(sceneName.lastIndexOf('.') + 1) + ".png");
+
+        final long start = System.nanoTime();
+        final RtScene scene = loadScene(sceneName, settings);
+        final SceneRenderer renderer = new SceneRenderer(scene.getWorld(), scene.getCam(), width, height, settings);
+        final int samples;
+        if (settings.progressive) {
+            samples = new ProgressiveRenderer(renderer).render(null);
+        } else {
+            new TileRenderer(width, height, settings.tileSize, settings.threads, settings.linear, renderer).render();
+            // the pattern of the camera, scenes may bring their own instead of the one of the settings
+            samples = renderer.cam.pattern.numberOfPoints;
+        }
+        final long rendered = System.nanoTime();
+
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, width, height, renderer.pixels, 0, width);
+        try {
+            ImageIO.write(image, "png", output);
+        } catch (IOException e) {
+            System.err.println("Could not write " + output + ": " + e.getMessage());
+            System.exit(1);
+        }
+
+        System.out.println("# " + sceneName + " " + width + "x" + height + ", " + samples + " samples ("
+                + String.format(Locale.ROOT, "%.1f", renderer.getPrimaryRayCount() / (double) (width * height))
+                + " camera rays per pixel), " + settings.threads + " threads: " + (rendered - start) / 1000000 + " ms -> " + output);
+    }
+
+    /**
+     * This method reads a number of the arguments, printing the usage and exiting if it is not a positive integer.
+     *
+     * @param value The argument.
+     * @param name  The name of the number for the message.
+     * @return The number.
+     */
+    private static int positive(final String value, final String name) {
+        try {
+            final int number = Integer.parseInt(value);
+            if (number > 0) return number;
+        } catch (NumberFormatException e) {
+            // reported below like a number that is not positive
+        }
+        usage("The " + name + " must be a positive integer, not \"" + value + "\".");
+        return 0;
+    }
+
+    /**
+     * This method prints a message and the usage to the standard error and exits with 1.
+     *
+     * @param message The message or null.
+     */
+    private static void usage(final String message) {
+        if (message != null) System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(1);
+    }
+
+    /**
+     * This method creates an instance of the scene with the given class name. Scenes with a constructor taking
+     * RenderSettings get the settings, e.g. for the sampling pattern of their camera.
+     *
+     * @param name     The class name, either fully qualified or in the package raytracer.scene.
+     * @param settings The settings of the render job.
+     * @return The scene.
+     */
+    static RtScene loadScene(final String name, final RenderSettings settings) {
+        if (name == null || settings == null) throw new IllegalArgumentException("Parameters must not be null.");
+        try {
+            final Class<?> type = Class.forName(name.contains(".") ? name : SCENE_PACKAGE + name);
+            if (!RtScene.class.isAssignableFrom(type))
+                throw new IllegalArgumentException(name + " is not a RtScene.");
+            try {
+                return (RtScene) type.getDeclaredConstructor(RenderSettings.class).newInstance(settings);
+            } catch (NoSuchMethodException e) {
+                return (RtScene) type.getDeclaredConstructor().newInstance();
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Scene " + name + " can not be loaded.", e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package raytracer.ui;
+
+import raytracer.texture.Color;
+
+/**
+ * This class renders an image progressively: every pass adds one sample to every pixel, so a first preview is
+ * ready after a single sample per pixel and gets better with every pass. The colors seen by the rays are summed in
+ * an accumulation buffer in the order colorFor sums them, so after all samples of the pattern the image is the same
+ * as a render without adaptive sampling.
+ * <p>
+ * The rendering stops after the target number of samples, when the time budget is used up or when it is cancelled.
+ * Both limits are checked after every pass. Adaptive sampling is not used, every pixel gets the same samples.
+ *
+ * @author TrayRacer Team
+ */
+public class ProgressiveRenderer implements TileRenderer.PixelRenderer {
+    /**
+     * The renderer of the samples. Its pixels hold the image, updated pixel by pixel.
+     */
+    public final SceneRenderer renderer;
+    /**
+     * The sums of red, green and blue and the number of rays, four values per pixel, row by row from the top.
+     */
+    private final double[] accumulation;
+    /**
+     * The sample of the current pass.
+     */
+    private volatile int pass;
+    /**
+     * The number of finished passes.
+     */
+    private volatile int passesDone;
+    /**
+     * Set when the rendering is stopped.
+     */
+    private volatile boolean cancelled;
+    /**
+     * The scheduler of the current pass, null between passes.
+     */
+    private volatile TileRenderer tiles;
+
+    /**
+     * This constructor creates a progressive renderer. The threads and tiles of the passes are taken from the
+     * settings of the renderer.
+     *
+     * @param renderer The renderer of the samples.
+     */
+    public ProgressiveRenderer(final SceneRenderer renderer) {
+        if (renderer == null) throw new IllegalArgumentException("Renderer must not be null.");
+        this.renderer = renderer;
+        this.accumulation = new double[4 * renderer.width * renderer.height];
+    }
+
+    /**
+     * This method renders passes until all samples of the camera's pattern are done, the time budget of the settings
+     * is used up or the rendering is cancelled.
+     *
+     * @param afterPass Called after every pass, e.g. to show the image, or null.
+     * @return The number of samples per pixel rendered.
+     */
+    public int render(final Runnable afterPass) {
+        return render(renderer.cam.pattern.numberOfPoints, renderer.settings.timeBudget, afterPass);
+    }
+
+    /**
+     * This method renders passes until the target number of samples is done, the time budget is used up or the
+     * rendering is cancelled. Unless it is cancelled, at least one pass is rendered. A later call continues with
+     * the next sample.
+     *
+     * @param targetSamples The number of samples per pixel after which the rendering stops. Must be larger than 0.
+     * @param timeBudget    The milliseconds after which no further pass is started, 0 for no limit.
+     * @param afterPass     Called after every pass, e.g. to show the image, or null.
+     * @return The number of samples per pixel rendered.
+     */
+    public int render(final int targetSamples, final long timeBudget, final Runnable afterPass) {
+        if (targetSamples <= 0) throw new IllegalArgumentException("Target samples must be larger than 0.");
+        if (timeBudget < 0) throw new IllegalArgumentException("Time budget must not be negative.");
+        final RenderSettings settings = renderer.settings;
+        final long start = System.nanoTime();
+        while (!cancelled && passesDone < targetSamples) {
+            pass = passesDone;
+            final TileRenderer tiles = new TileRenderer(renderer.width, renderer.height, settings.tileSize,
+                    settings.threads, settings.linear, this);
+            this.tiles = tiles;
+            // a cancel between the check above and the assignment has not seen these tiles
+            if (cancelled) break;
+            tiles.render();
+            this.tiles = null;
+            if (cancelled) break;
+            passesDone++;
+            if (afterPass != null) afterPass.run();
+            if (timeBudget > 0 && (System.nanoTime() - start) / 1000000 >= timeBudget) break;
+        }
+        return passesDone;
+    }
+
+    /**
+     * This method stops the rendering. The current pass stops after the current row of each tile.
+     */
+    public void cancel() {
+        cancelled = true;
+        final TileRenderer t = tiles;
+        if (t != null) t.cancel();
+    }
+
+    /**
+     * This method returns the number of finished passes, the samples per pixel of the image.
+     *
+     * @return The number of finished passes.
+     */
+    public int getPassesDone() {
+        return passesDone;
+    }
+
+    /**
+     * This method returns the number of pixels finished in the current pass.
+     *
+     * @return The number of pixels, 0 between passes.
+     */
+    public int getPixelsDone() {
+        final TileRenderer t = tiles;
+        return t != null ? t.getPixelsDone() : 0;
+    }
+
+    @Override
+    public void renderPixel(final int x, final int y) {
+        final int pixel = y * renderer.width + x;
+        final int i = 4 * pixel;
+        accumulation[i + 3] += renderer.addSample(x, y, pass, accumulation, i);
+        final double count = accumulation[i + 3];
+        renderer.pixels[pixel] = count == 0 ? renderer.world.backgroundColor.getRGB()
+                : new Color(accumulation[i] / count, accumulation[i + 1] / count, accumulation[i + 2] / count).getRGB();
+    }
+}
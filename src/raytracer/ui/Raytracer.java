@@ -17,9 +17,7 @@ import raytracer.camera.PerspectiveCamera;
 import raytracer.geometry.*;
 import raytracer.light.PointLight;
 import raytracer.material.PhongMaterial;
-import raytracer.material.Tracer;
 import raytracer.math.Point3;
-import raytracer.math.Ray;
 import raytracer.math.Vector3;
 import raytracer.scene.*;
 import raytracer.scene.Torus;
@@ -30,9 +28,7 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.concurrent.*;
+import java.util.Properties;
 
 /**
  * This class is a FX Ray Tracer application. It has a menu bar with several options for displaying different scenes
@@ -57,6 +53,10 @@ public class Raytracer extends Application {
      * Camera that is used, perspective or orthographic
      */
     private Camera cam;
+    /**
+     * The settings of the renders, the defaults changed by the named parameters of the application.
+     */
+    private RenderSettings settings = RenderSettings.defaults();
 
     /**
      * ImageView shows the Image
@@ -72,9 +72,17 @@ public class Raytracer extends Application {
      */
     private int pixelsDone = 0;
     /**
-     * Executor service for multithreaded rendering.
+     * Calculates the pixel colors of the current scene.
+     */
+    private SceneRenderer sceneRenderer;
+    /**
+     * Tile scheduler for multithreaded rendering.
+     */
+    private TileRenderer renderers;
+    /**
+     * Pass scheduler for progressive rendering.
      */
-    private ExecutorService renderers;
+    private volatile ProgressiveRenderer progressiveRenderer;
     /**
      * Pixel buffer for rendering.
      */
@@ -99,7 +107,7 @@ public class Raytracer extends Application {
     /**
      * Main method calling javafx-application main
      *
-     * @param args Starting arguments
+     * @param args Starting arguments, render settings can be given as --raytracer.samples=4 etc., see RenderSettings
      */
     public static void main(String[] args) {
         launch(args);
@@ -107,6 +115,9 @@ public class Raytracer extends Application {
 
     @Override
     public void start(final Stage primaryStage) {
+        final Properties parameters = new Properties();
+        parameters.putAll(getParameters().getNamed());
+        settings = settings.with(parameters);
 
         pane.setTop(createMenuBar(primaryStage));
         pane.setCenter(view);
@@ -129,15 +140,15 @@ public class Raytracer extends Application {
             System.exit(0);
         });
 
-        loadScene(new DOFSpheres());
+        loadScene(new DOFSpheres(settings));
     }
 
     /**
      * This method resets the Image. Useful for size changes and setting it black.
      */
     private void resetImage() {
-        if(GlobalConfig.FX_IMAGE) {
-            if (GlobalConfig.DEBUG_MODE) System.out.println("# FX-Image");
+        if(settings.fxImage) {
+            if (settings.debug) System.out.println("# FX-Image");
             wImage = new WritableImage(width, height);
             pixelBuffer = new int[width * height];
 
@@ -149,7 +160,7 @@ public class Raytracer extends Application {
             view.setImage(wImage);
         }
         else {
-            if (GlobalConfig.DEBUG_MODE) System.out.println("# SWT-Image");
+            if (settings.debug) System.out.println("# SWT-Image");
             rImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
             for (int y = 0; y < height; y++) {
                 for (int x = 0; x < width; x++) {
@@ -169,7 +180,7 @@ public class Raytracer extends Application {
      * This method refreshes the View.
      */
     private void refreshImage() {
-        if (GlobalConfig.FX_IMAGE) {
+        if (settings.fxImage) {
             wImage.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixelBuffer, 0, width);
         } else {
             Image image = SwingFXUtils.toFXImage(rImage, null);
@@ -183,64 +194,77 @@ public class Raytracer extends Application {
      * which will be placed in the ImageView.
      */
     private void raytrace() {
-        if (GlobalConfig.DEBUG_MODE){
+        if (settings.debug){
             System.out.println("\n########");
             System.out.println("# Camera SamplingPattern: " + cam.pattern);
-            System.out.println("# Recursion Depth: " + GlobalConfig.RECURSION_DEPTH);
+            System.out.println("# Recursion Depth: " + settings.recursionDepth);
         }
 
         killEmAll();
         pixelsDone = 0;
         pixelsTotal = width * height;
         resetImage();
+        sceneRenderer = new SceneRenderer(world, cam, width, height, settings);
 
-        if (GlobalConfig.THREADED_RENDERING) {
-            if (GlobalConfig.DEBUG_MODE) System.out.println("# threaded rendering with " + GlobalConfig.RENDER_THREADS + " Threads");
-            renderers = Executors.newFixedThreadPool(GlobalConfig.RENDER_THREADS);
-
-            if (GlobalConfig.LINEAR_RENDERING) {
-                if (GlobalConfig.DEBUG_MODE) System.out.println("# linear rendering");
-                for (int y = 0; y < height; y++) {
-                    for (int x = 0; x < width; x++) {
-                        renderers.execute(pixelRenderer(x, y));
-                    }
-                }
+        if (settings.progressive) {
+            if (settings.debug) {
+                System.out.println("# progressive rendering with " + settings.threads + " Threads");
+                if (settings.timeBudget > 0) System.out.println("# time budget " + settings.timeBudget + " ms");
             }
+            final ProgressiveRenderer progressive = new ProgressiveRenderer(sceneRenderer);
+            progressiveRenderer = progressive;
+            final int passes = cam.pattern.numberOfPoints;
 
-            else {
-                if (GlobalConfig.DEBUG_MODE) System.out.println("# randomly distributed pixel rendering");
-                LinkedList<int[]> pixelsToDo = new LinkedList<>();
-                for (int y = 0; y < height; y++) {
-                    for (int x = 0; x < width; x++) {
-                        pixelsToDo.add(new int[]{x, y});
-                    }
-                }
-                Collections.shuffle(pixelsToDo);
-                while (!pixelsToDo.isEmpty()) {
-                    int[] coordinates = pixelsToDo.remove(0);
-                    renderers.execute(pixelRenderer(coordinates[0], coordinates[1]));
+            Task<Void> renderTask = new Task<Void>() {
+                @Override
+                protected Void call() throws Exception {
+                    if (settings.debug) System.out.print("# started updater...");
+                    progressive.render(() -> {
+                        // a pass finishing while a new render starts must not draw into its image
+                        if (progressiveRenderer != progressive) return;
+                        updateProgress(progressive.getPassesDone(), passes);
+                        showPixels(progressive.renderer.pixels);
+                    });
+                    updateProgress(100, 100);
+                    if (settings.debug) System.out.println(" finished after " + progressive.getPassesDone() + " passes");
+                    return null;
                 }
-            }
+            };
 
-            renderers.shutdown();
+            Thread renderThread = new Thread(renderTask);
+            renderThread.setDaemon(true);
+            progressBar.progressProperty().bind(renderTask.progressProperty());
+            renderThread.start();
+
+        } else if (settings.threaded) {
+            if (settings.debug) System.out.println("# threaded rendering with " + settings.threads + " Threads");
+            if (settings.debug) {
+                if (settings.linear) System.out.println("# linear rendering");
+                else System.out.println("# randomly distributed tile rendering");
+                System.out.println("# tile size " + settings.tileSize);
+            }
+            final TileRenderer tiles = new TileRenderer(width, height, settings.tileSize, settings.threads,
+                    settings.linear, this::renderPixel);
+            renderers = tiles;
+            tiles.start();
 
             Task<Void> refreshTask = new Task<Void>() {
                 @Override
                 protected Void call() throws Exception {
-                    if (GlobalConfig.DEBUG_MODE) System.out.print("# started updater...");
-                    while (!renderers.isTerminated()) {
+                    if (settings.debug) System.out.print("# started updater...");
+                    while (!tiles.isDone()) {
                         if (isCancelled()) {
-                            if (GlobalConfig.DEBUG_MODE) System.out.println("! updater CANCELED!");
+                            if (settings.debug) System.out.println("! updater CANCELED!");
                             break;
                         }
-                        updateProgress(pixelsDone, pixelsTotal);
+                        updateProgress(tiles.getPixelsDone(), tiles.getPixelsTotal());
                         refreshImage();
 
                         try {
                             Thread.sleep(100);
                         } catch (InterruptedException interrupted) {
                             if (isCancelled()) {
-                                if (GlobalConfig.DEBUG_MODE) System.out.println("! updater CANCELED!");
+                                if (settings.debug) System.out.println("! updater CANCELED!");
                                 break;
                             }
                         }
@@ -248,7 +272,7 @@ public class Raytracer extends Application {
                     }
                     updateProgress(100, 100);
                     refreshImage();
-                    if (GlobalConfig.DEBUG_MODE) System.out.println(" finished");
+                    if (settings.debug) System.out.println(" finished");
                     return null;
                 }
             };
@@ -259,21 +283,22 @@ public class Raytracer extends Application {
             refreshThread.start();
 
         } else { // Non-Threaded rendering with updateTask
-            if (GlobalConfig.DEBUG_MODE) System.out.println("# non-threaded rendering");
+            if (settings.debug) System.out.println("# non-threaded rendering");
             Task<Void> renderTask = new Task<Void>() {
                 @Override
                 protected Void call() throws Exception {
-                    if (GlobalConfig.DEBUG_MODE) System.out.print("# started updater...");
+                    if (settings.debug) System.out.print("# started updater...");
                     for (int y = 0; y < height; y++) {
                         for (int x = 0; x < width; x++) {
                             renderPixel(x, y);
+                            pixelsDone++;
                             updateProgress(pixelsDone, pixelsTotal);
                             refreshImage();
                         }
                     }
                     updateProgress(100, 100);
                     refreshImage();
-                    if (GlobalConfig.DEBUG_MODE) System.out.println(" finished");
+                    if (settings.debug) System.out.println(" finished");
                     return null;
                 }
             };
@@ -293,17 +318,6 @@ public class Raytracer extends Application {
     }
 
 
-    /**
-     * This method creates a Runnable for the renderer which calculates the specified pixel of the image.
-     *
-     * @param x The x-coordinate of the pixel.
-     * @param y The y-coordinate of the pixel.
-     * @return The Runnable.
-     */
-    private Runnable pixelRenderer(final int x, final int y) {
-        return () -> renderPixel(x, y);
-    }
-
     /**
      * This method does the actual rendering. Writes directly into pixelBuffer.
      *
@@ -311,44 +325,39 @@ public class Raytracer extends Application {
      * @param y The y-coordinate of the pixel.
      */
     private void renderPixel(final int x, final int y) {
-        Color c = world.backgroundColor;
-        LinkedList<Color> colors = new LinkedList<>();
-        for (Ray ray : cam.rayFor(width, height, x, (height - 1) - y)) {
-            Hit hit = world.hit(ray);
-            if (hit != null) {
-                colors.add(hit.material.colorFor(hit, world, new Tracer(GlobalConfig.RECURSION_DEPTH)));
-            } else colors.add(c);
-        }
-        if (colors.size() > 0) {
-            double r = 0.0;
-            double g = 0.0;
-            double b = 0.0;
-            for (Color color : colors) {
-                r += color.r;
-                g += color.g;
-                b += color.b;
-            }
-            c = new Color(r / colors.size(), g / colors.size(), b / colors.size());
-        }
+        Color c = sceneRenderer.colorFor(x, y);
 
-        if (GlobalConfig.FX_IMAGE) {
+        if (settings.fxImage) {
             pixelBuffer[y * width + x] = c.getRGB();
         } else {
             rImage.setRGB(x, y, c.getRGB());
         }
-        pixelsDone++;
+    }
+
+    /**
+     * This method copies rendered pixels into the image and refreshes the view.
+     *
+     * @param pixels The packed rgb values of the image, row by row from the top.
+     */
+    private void showPixels(final int[] pixels) {
+        if (settings.fxImage) {
+            System.arraycopy(pixels, 0, pixelBuffer, 0, pixelBuffer.length);
+        } else {
+            rImage.setRGB(0, 0, width, height, pixels, 0, width);
+        }
+        refreshImage();
     }
 
     /**
      * Method for stopping all renderwork.
      */
     private void killEmAll(){
-        if (renderers != null && !renderers.isTerminated()){
-            renderers.shutdownNow();
-            //TODO: KILL EM DEAD!
-//            while (!renderers.isTerminated()){
-//                //warten
-//            }
+        if (renderers != null && !renderers.isDone()){
+            renderers.cancel();
+        }
+        if (progressiveRenderer != null) {
+            progressiveRenderer.cancel();
+            progressiveRenderer = null;
         }
 
     }
@@ -429,10 +438,11 @@ public class Raytracer extends Application {
         if (objFile != null) {
 //            ShapeFromFile objGeo = new ShapeFromFile(objFile, new LambertMaterial(new Color(1, 1, 0)));
             ShapeFromFile objGeo = new ShapeFromFile(objFile, new PhongMaterial(new SingleColorTexture(new Color(1, 1, 0)), new SingleColorTexture(new Color(1, 1, 1)), 64));
+            if (settings.debug) System.out.println("# " + objFile.getName() + ": " + objGeo.getTriangleCount() + " triangles");
             Vector3 geoMiddle = new Vector3(objGeo.boundingBox.lbf.x, objGeo.boundingBox.lbf.y, objGeo.boundingBox.lbf.z).mul(0.5).add(new Vector3(objGeo.boundingBox.run.x, objGeo.boundingBox.run.y, objGeo.boundingBox.run.z).mul(0.5));
             double objHeight = objGeo.boundingBox.lbf.sub(objGeo.boundingBox.run).magnitude;
             //noinspection SuspiciousNameCombination
-            cam = new PerspectiveCamera(new Point3(objHeight, objHeight, objHeight), new Vector3(geoMiddle.x - objHeight, geoMiddle.y - objHeight, geoMiddle.z - objHeight), new Vector3(0, 1, 0), Math.PI / 4, GlobalConfig.CAMERA_SAMPLING_PATTERN);
+            cam = new PerspectiveCamera(new Point3(objHeight, objHeight, objHeight), new Vector3(geoMiddle.x - objHeight, geoMiddle.y - objHeight, geoMiddle.z - objHeight), new Vector3(0, 1, 0), Math.PI / 4, settings.getSamplingPattern());
             world = new World(new Color(0.1, 0.1, 0.1), new Color(0.3, 0.3, 0.3));
             world.addGeometry(objGeo);
             //noinspection SuspiciousNameCombination
@@ -537,11 +547,11 @@ public class Raytracer extends Application {
         final Menu ex4 = new Menu("Exercise 4");
 
         final MenuItem ex4spheres = new MenuItem("Spheres");
-        ex4spheres.setOnAction(e -> loadScene(new Ex4Spheres()));
+        ex4spheres.setOnAction(e -> loadScene(new Ex4Spheres(settings)));
         ex4.getItems().add(ex4spheres);
 
         final MenuItem ex4box = new MenuItem("Box");
-        ex4box.setOnAction(e -> loadScene(new Ex4Box()));
+        ex4box.setOnAction(e -> loadScene(new Ex4Box(settings)));
         ex4.getItems().add(ex4box);
 
         sceneMenu.getItems().add(ex4);
@@ -549,11 +559,11 @@ public class Raytracer extends Application {
         final Menu ex5 = new Menu("Exercise 5");
 
         final MenuItem ex5smartie = new MenuItem("Smartie");
-        ex5smartie.setOnAction(e -> loadScene(new Ex5Smartie()));
+        ex5smartie.setOnAction(e -> loadScene(new Ex5Smartie(settings)));
         ex5.getItems().add(ex5smartie);
 
         final MenuItem ex5box = new MenuItem("Box");
-        ex5box.setOnAction(e -> loadScene(new Ex5Box()));
+        ex5box.setOnAction(e -> loadScene(new Ex5Box(settings)));
         ex5.getItems().add(ex5box);
 
         sceneMenu.getItems().add(ex5);
@@ -561,42 +571,42 @@ public class Raytracer extends Application {
         final Menu extra = new Menu("Additional Scenes");
 
         final MenuItem primitives = new MenuItem("Primitive");
-        primitives.setOnAction(e -> loadScene(new Primitives()));
+        primitives.setOnAction(e -> loadScene(new Primitives(settings)));
         extra.getItems().add(primitives);
 
         final MenuItem okArt = new MenuItem("Abstrakte Kunst");
-        okArt.setOnAction(e -> loadScene(new OkAbstractArt()));
+        okArt.setOnAction(e -> loadScene(new OkAbstractArt(settings)));
         extra.getItems().add(okArt);
 
         final MenuItem cylinder = new MenuItem("The Greeks!");
-        cylinder.setOnAction(e -> loadScene(new Cylinder()));
+        cylinder.setOnAction(e -> loadScene(new Cylinder(settings)));
         extra.getItems().add(cylinder);
 
         final MenuItem torus = new MenuItem("Lifebelt");
-        torus.setOnAction(e -> loadScene(new Torus()));
+        torus.setOnAction(e -> loadScene(new Torus(settings)));
         extra.getItems().add(torus);
 
         final MenuItem cone = new MenuItem("X-Mas Scene");
-        cone.setOnAction(e -> loadScene(new Cone()));
+        cone.setOnAction(e -> loadScene(new Cone(settings)));
         extra.getItems().add(cone);
 
         final MenuItem stereoTest = new MenuItem("Stereo Test");
         stereoTest.setOnAction(e -> {
             setDimensions(primaryStage, 800, 400);
-            loadScene(new StereoTest());
+            loadScene(new StereoTest(settings));
         });
         extra.getItems().add(stereoTest);
 
         final MenuItem okCity = new MenuItem("Invader Over City (heavy!)");
-        okCity.setOnAction(e -> loadScene(new OkCity()));
+        okCity.setOnAction(e -> loadScene(new OkCity(settings)));
         extra.getItems().add(okCity);
 
         final MenuItem mirrorHall = new MenuItem("MirrorMirror");
-        mirrorHall.setOnAction(e -> loadScene(new MirrorHall()));
+        mirrorHall.setOnAction(e -> loadScene(new MirrorHall(settings)));
         extra.getItems().add(mirrorHall);
 
         final MenuItem earth = new MenuItem("Earth");
-        earth.setOnAction(e -> loadScene(new Earth()));
+        earth.setOnAction(e -> loadScene(new Earth(settings)));
         extra.getItems().add(earth);
 
         sceneMenu.getItems().add(extra);
@@ -0,0 +1,679 @@
+package raytracer.ui;
+
+import raytracer.material.Tracer;
+import raytracer.sampling.CounterRandom;
+import raytracer.sampling.SamplingPattern;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * This class holds the settings of a render job: the threads and tiles of the render engine, the samples of the
+ * cameras and the reflections of the tracer. Settings are immutable, the with methods return changed copies, so one
+ * job can use 1 sample for a preview and another 64 for the final image without rebuilding.
+ * <p>
+ * Settings can be read from properties, either from a properties file or from the command line. The keys are:
+ * <pre>
+ * raytracer.debug               print render information, true or false
+ * raytracer.threaded            render in tiles on several threads, true or false
+ * raytracer.threads             the number of render threads
+ * raytracer.linear              render the tiles row by row instead of shuffled, true or false
+ * raytracer.tileSize            the edge length of the square tiles in pixels
+ * raytracer.fxImage             draw into a FX image instead of an AWT image, true or false
+ * raytracer.samples             the samples per pixel, the most samples of noisy pixels with adaptive sampling
+ * raytracer.minSamples          the samples every pixel gets before adaptive sampling adds more to noisy ones, the
+ *                               samples per pixel turn adaptive sampling off, at least 2
+ * raytracer.noiseThreshold      the standard error of a pixel's color below which no samples are added, 0 turns
+ *                               adaptive sampling off
+ * raytracer.progressive         render one sample per pixel per pass and show the image after each, true or false
+ * raytracer.timeBudget          the milliseconds after which a progressive render starts no further pass, 0 for
+ *                               no limit
+ * raytracer.sampler             the sampling pattern: sobol, halton, blueNoise or random
+ * raytracer.seed                the seed of the sampling pattern and the roulette, 0 if not set, the random
+ *                               pattern is unseeded then
+ * raytracer.depth               the maximum number of reflections
+ * raytracer.reflectionThreshold the throughput below which reflections end
+ * raytracer.roulette            end weak reflections at random without bias, true or false
+ * </pre>
+ * The defaults are read from the system properties and from the properties file given by
+ * -Draytracer.settings=file, the system properties take precedence.
+ *
+ * @author TrayRacer Team
+ */
+public class RenderSettings {
+    /**
+     * The prefix of all keys.
+     */
+    public static final String PREFIX = "raytracer.";
+    /**
+     * The system property naming a properties file with settings.
+     */
+    public static final String SETTINGS_FILE = PREFIX + "settings";
+
+    /**
+     * True if render information is printed.
+     */
+    public final boolean debug;
+    /**
+     * True if the image is rendered in tiles on several threads.
+     */
+    public final boolean threaded;
+    /**
+     * The number of render threads.
+     */
+    public final int threads;
+    /**
+     * True if the tiles are rendered row by row, false if they are shuffled.
+     */
+    public final boolean linear;
+    /**
+     * The edge length of the square tiles handed to the render threads.
+     */
+    public final int tileSize;
+    /**
+     * True if the user interface draws into a FX image, false for an AWT image.
+     */
+    public final boolean fxImage;
+    /**
+     * The samples per pixel.
+     */
+    public final int samples;
+    /**
+     * The samples every pixel gets before samples are only added where the pixel is noisy. At least 2.
+     */
+    public final int minSamples;
+    /**
+     * The standard error of the color of a pixel below which no more samples are added. 0 turns adaptive sampling off,
+     * which is the built-in default.
+     */
+    public final double noiseThreshold;
+    /**
+     * True if the image is rendered in passes of one sample per pixel, see ProgressiveRenderer.
+     */
+    public final boolean progressive;
+    /**
+     * The milliseconds after which a progressive render starts no further pass, 0 for no limit.
+     */
+    public final long timeBudget;
+    /**
+     * The kind of sampling pattern of the cameras.
+     */
+    public final Sampling sampling;
+    /**
+     * The seed of the sampling pattern and the roulette or null for an unseeded random pattern.
+     */
+    public final Long seed;
+    /**
+     * The maximum number of reflections.
+     */
+    public final int recursionDepth;
+    /**
+     * The throughput below which reflections end.
+     */
+    public final double reflectionThreshold;
+    /**
+     * True if weak reflections end at random without bias.
+     */
+    public final boolean russianRoulette;
+    /**
+     * The sampling pattern of the cameras, created from the samples and the seed.
+     */
+    private final SamplingPattern samplingPattern;
+
+    /**
+     * This constructor creates the settings.
+     *
+     * @param debug               True if render information is printed.
+     * @param threaded            True if the image is rendered in tiles on several threads.
+     * @param threads             The number of render threads. Must be larger than 0.
+     * @param linear              True if the tiles are rendered row by row, false if they are shuffled.
+     * @param tileSize            The edge length of the tiles. Must be larger than 0.
+     * @param fxImage             True if the user interface draws into a FX image.
+     * @param samples             The samples per pixel. Must be larger than 0.
+     * @param minSamples          The samples every pixel gets before samples are only added to noisy pixels. Must
+     *                            be larger than 1, samples or more turn adaptive sampling off.
+     * @param noiseThreshold      The standard error of the color of a pixel below which no more samples are added.
+     *                            Must not be negative, 0 turns adaptive sampling off.
+     * @param progressive         True if the image is rendered in passes of one sample per pixel.
+     * @param timeBudget          The milliseconds after which a progressive render starts no further pass, 0 for no
+     *                            limit. Must not be negative.
+     * @param sampling            The kind of sampling pattern of the cameras.
+     * @param seed                The seed of the sampling pattern and the roulette or null for an unseeded random
+     *                            pattern.
+     * @param recursionDepth      The maximum number of reflections. Must not be negative.
+     * @param reflectionThreshold The throughput below which reflections end. Must not be negative.
+     * @param russianRoulette     True if weak reflections end at random without bias.
+     */
+    public RenderSettings(final boolean debug, final boolean threaded, final int threads, final boolean linear,
+                          final int tileSize, final boolean fxImage, final int samples, final int minSamples,
+                          final double noiseThreshold, final boolean progressive, final long timeBudget,
+                          final Sampling sampling, final Long seed, final int recursionDepth, final double reflectionThreshold, final boolean russianRoulette) {
+        if (sampling == null) throw new IllegalArgumentException("Sampling must not be null.");
+        if (threads <= 0 || tileSize <= 0 || samples <= 0)
+            throw new IllegalArgumentException("Threads, tile size and samples must be larger than 0.");
+        // the noise of a pixel is estimated from the variance of its first samples, which needs at least two
+        if (minSamples < 2) throw new IllegalArgumentException("Min samples must be larger than 1.");
+        if (noiseThreshold < 0 || timeBudget < 0)
+            throw new IllegalArgumentException("Noise threshold and time budget must not be negative.");
+        if (recursionDepth < 0 || reflectionThreshold < 0)
+            throw new IllegalArgumentException("Recursion depth and reflection threshold must not be negative.");
+        this.debug = debug;
+        this.threaded = threaded;
+        this.threads = threads;
+        this.linear = linear;
+        this.tileSize = tileSize;
+        this.fxImage = fxImage;
+        this.samples = samples;
+        this.minSamples = minSamples;
+        this.noiseThreshold = noiseThreshold;
+        this.progressive = progressive;
+        this.timeBudget = timeBudget;
+        this.sampling = sampling;
+        this.seed = seed;
+        this.recursionDepth = recursionDepth;
+        this.reflectionThreshold = reflectionThreshold;
+        this.russianRoulette = russianRoulette;
+        this.samplingPattern = samplingPattern(samples, sampling, seed);
+    }
+
+    /**
+     * This enum lists the kinds of sampling patterns.
+     */
+    public enum Sampling {
+        /**
+         * Points from the scrambled Sobol sequence, see SobolSampler.
+         */
+        SOBOL("sobol"),
+        /**
+         * Points from the shifted Halton sequence, see HaltonSampler.
+         */
+        HALTON("halton"),
+        /**
+         * Points from the Sobol sequence shifted by blue noise, see BlueNoiseSampler.
+         */
+        BLUE_NOISE("blueNoise"),
+        /**
+         * Points jittered in shuffled strata, new ones for every pixel.
+         */
+        RANDOM("random");
+
+        /**
+         * The name of the kind in the properties.
+         */
+        public final String key;
+
+        /**
+         * This constructor creates a kind of sampling pattern.
+         *
+         * @param key The name of the kind in the properties.
+         */
+        Sampling(final String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * This method creates the sampling pattern of the cameras. A single sample is always in the center of the pixel.
+     *
+     * @param samples  The samples per pixel.
+     * @param sampling The kind of sampling pattern.
+     * @param seed     The seed or null. The precomputed sequences then use the seed 0, the random points are unseeded.
+     * @return The sampling pattern.
+     */
+    private static SamplingPattern samplingPattern(final int samples, final Sampling sampling, final Long seed) {
+        if (samples == 1) return new SamplingPattern();
+        switch (sampling) {
+            case SOBOL:
+                return new SamplingPattern().sobolPattern(samples, seed != null ? seed : 0);
+            case HALTON:
+                return new SamplingPattern().haltonPattern(samples, seed != null ? seed : 0);
+            case BLUE_NOISE:
+                return new SamplingPattern().blueNoisePattern(samples, seed != null ? seed : 0);
+            default:
+                return seed != null ? new SamplingPattern().randomPattern(samples, seed)
+                        : new SamplingPattern().randomPattern(samples);
+        }
+    }
+
+    /**
+     * This method returns the built-in settings, without looking at any properties.
+     *
+     * @return The built-in settings.
+     */
+    public static RenderSettings builtIn() {
+        return new RenderSettings(true, true, Math.max(1, Runtime.getRuntime().availableProcessors() - 2), false,
+                32, false, 20, 8, 0, false, 0, Sampling.SOBOL, null, 100, Tracer.MIN_CONTRIBUTION, false);
+    }
+
+    /**
+     * This method returns the default settings: the built-in ones changed by the properties file given by
+     * -Draytracer.settings=file and by the system properties. They are read once, on first use.
+     *
+     * @return The default settings.
+     */
+    public static RenderSettings defaults() {
+        return Defaults.SETTINGS;
+    }
+
+    /**
+     * This class holds the default settings, so they are read when they are first needed and not when the class is
+     * loaded, e.g. after a command line tool set its system properties.
+     */
+    private static class Defaults {
+        /**
+         * The default settings.
+         */
+        private static final RenderSettings SETTINGS = fromSystemProperties();
+    }
+
+    /**
+     * This method reads the settings from the system properties and the properties file given by
+     * -Draytracer.settings=file. The system properties take precedence.
+     *
+     * @return The settings.
+     */
+    public static RenderSettings fromSystemProperties() {
+        RenderSettings settings = builtIn();
+        final String file = System.getProperty(SETTINGS_FILE);
+        if (file != null && !file.isEmpty()) {
+            try {
+                settings = settings.with(load(new File(file)));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Settings file " + file + " can not be read.", e);
+            }
+        }
+        return settings.with(System.getProperties());
+    }
+
+    /**
+     * This method reads a properties file.
+     *
+     * @param file The properties file.
+     * @return The properties.
+     * @throws IOException If the file can not be read.
+     */
+    public static Properties load(final File file) throws IOException {
+        if (file == null) throw new IllegalArgumentException("File must not be null.");
+        final Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    /**
+     * This method returns these settings changed by the given properties. Keys that are not set keep their value.
+     *
+     * @param properties The properties.
+     * @return The changed settings.
+     */
+    public RenderSettings with(final Properties properties) {
+        if (properties == null) throw new IllegalArgumentException("Properties must not be null.");
+        // an empty seed turns a seed set before off
+        final String seedValue = properties.getProperty(PREFIX + "seed");
+        final Long newSeed = seedValue == null ? seed : seedValue.trim().isEmpty() ? null : longValue(properties, "seed", 0);
+        final Builder builder = toBuilder();
+        builder.debug = bool(properties, "debug", debug);
+        builder.threaded = bool(properties, "threaded", threaded);
+        builder.threads = integer(properties, "threads", threads);
+        builder.linear = bool(properties, "linear", linear);
+        builder.tileSize = integer(properties, "tileSize", tileSize);
+        builder.fxImage = bool(properties, "fxImage", fxImage);
+        builder.samples = integer(properties, "samples", samples);
+        builder.minSamples = integer(properties, "minSamples", minSamples);
+        builder.noiseThreshold = real(properties, "noiseThreshold", noiseThreshold);
+        builder.progressive = bool(properties, "progressive", progressive);
+        builder.timeBudget = longValue(properties, "timeBudget", timeBudget);
+        builder.sampling = sampling(properties, sampling);
+        builder.seed = newSeed;
+        builder.recursionDepth = integer(properties, "depth", recursionDepth);
+        builder.reflectionThreshold = real(properties, "reflectionThreshold", reflectionThreshold);
+        builder.russianRoulette = bool(properties, "roulette", russianRoulette);
+        return builder.build();
+    }
+
+    /**
+     * This method returns a copy of these settings with the given number of threads.
+     *
+     * @param threads The number of render threads. Must be larger than 0.
+     * @return The changed settings.
+     */
+    public RenderSettings withThreads(final int threads) {
+        final Builder builder = toBuilder();
+        builder.threads = threads;
+        return builder.build();
+    }
+
+    /**
+     * This method returns a copy of these settings with the given order of the tiles.
+     *
+     * @param linear True if the tiles are rendered row by row, false if they are shuffled.
+     * @return The changed settings.
+     */
+    public RenderSettings withLinear(final boolean linear) {
+        final Builder builder = toBuilder();
+        builder.linear = linear;
+        return builder.build();
+    }
+
+    /**
+     * This method returns a copy of these settings with the given samples per pixel.
+     *
+     * @param samples The samples per pixel. Must be larger than 0.
+     * @return The changed settings.
+     */
+    public RenderSettings withSamples(final int samples) {
+        final Builder builder = toBuilder();
+        builder.samples = samples;
+        return builder.build();
+    }
+
+    /**
+     * This method returns a copy of these settings with the given adaptive sampling.
+     *
+     * @param minSamples     The samples every pixel gets before samples are only added to noisy pixels. Must be
+     *                       larger than 1, samples or more turn adaptive sampling off.
+     * @param noiseThreshold The standard error of the color of a pixel below which no more samples are added. Must
+     *                       not be negative, 0 turns adaptive sampling off.
+     * @return The changed settings.
+     */
+    public RenderSettings withAdaptiveSampling(final int minSamples, final double noiseThreshold) {
+        final Builder builder = toBuilder();
+        builder.minSamples = minSamples;
+        builder.noiseThreshold = noiseThreshold;
+        return builder.build();
+    }
+
+    /**
+     * This method returns a copy of these settings with the given progressive rendering.
+     *
+     * @param progressive True if the image is rendered in passes of one sample per pixel.
+     * @param timeBudget  The milliseconds after which a progressive render starts no further pass, 0 for no limit.
+     *                    Must not be negative.
+     * @return The changed settings.
+     */
+    public RenderSettings withProgressive(final boolean progressive, final long timeBudget) {
+        final Builder builder = toBuilder();
+        builder.progressive = progressive;
+        builder.timeBudget = timeBudget;
+        return builder.build();
+    }
+
+    /**
+     * This method returns a copy of these settings with the given kind of sampling pattern.
+     *
+     * @param sampling The kind of sampling pattern.
+     * @return The changed settings.
+     */
+    public RenderSettings withSampling(final Sampling sampling) {
+        final Builder builder = toBuilder();
+        builder.sampling = sampling;
+        return builder.build();
+    }
+
+    /**
+     * This method returns a copy of these settings with the given seed of the sampling pattern.
+     *
+     * @param seed The seed or null for an unseeded pattern.
+     * @return The changed settings.
+     */
+    public RenderSettings withSeed(final Long seed) {
+        final Builder builder = toBuilder();
+        builder.seed = seed;
+        return builder.build();
+    }
+
+    /**
+     * This method returns a copy of these settings with the given maximum number of reflections.
+     *
+     * @param recursionDepth The maximum number of reflections. Must not be negative.
+     * @return The changed settings.
+     */
+    public RenderSettings withRecursionDepth(final int recursionDepth) {
+        final Builder builder = toBuilder();
+        builder.recursionDepth = recursionDepth;
+        return builder.build();
+    }
+
+    /**
+     * This method creates a builder holding these settings, for the copies with changed values.
+     *
+     * @return The builder.
+     */
+    private Builder toBuilder() {
+        final Builder builder = new Builder();
+        builder.debug = debug;
+        builder.threaded = threaded;
+        builder.threads = threads;
+        builder.linear = linear;
+        builder.tileSize = tileSize;
+        builder.fxImage = fxImage;
+        builder.samples = samples;
+        builder.minSamples = minSamples;
+        builder.noiseThreshold = noiseThreshold;
+        builder.progressive = progressive;
+        builder.timeBudget = timeBudget;
+        builder.sampling = sampling;
+        builder.seed = seed;
+        builder.recursionDepth = recursionDepth;
+        builder.reflectionThreshold = reflectionThreshold;
+        builder.russianRoulette = russianRoulette;
+        return builder;
+    }
+
+    /**
+     * This class holds the values of settings while a copy is changed, so every with method only sets the values it
+     * changes. The values are checked when the settings are built.
+     */
+    private static class Builder {
+        /**
+         * True if render information is printed.
+         */
+        boolean debug;
+        /**
+         * True if the image is rendered in tiles on several threads.
+         */
+        boolean threaded;
+        /**
+         * The number of render threads.
+         */
+        int threads;
+        /**
+         * True if the tiles are rendered row by row, false if they are shuffled.
+         */
+        boolean linear;
+        /**
+         * The edge length of the tiles.
+         */
+        int tileSize;
+        /**
+         * True if the user interface draws into a FX image.
+         */
+        boolean fxImage;
+        /**
+         * The samples per pixel.
+         */
+        int samples;
+        /**
+         * The samples every pixel gets before samples are only added to noisy pixels.
+         */
+        int minSamples;
+        /**
+         * The standard error of the color of a pixel below which no more samples are added.
+         */
+        double noiseThreshold;
+        /**
+         * True if the image is rendered in passes of one sample per pixel.
+         */
+        boolean progressive;
+        /**
+         * The milliseconds after which a progressive render starts no further pass.
+         */
+        long timeBudget;
+        /**
+         * The kind of sampling pattern of the cameras.
+         */
+        Sampling sampling;
+        /**
+         * The seed of the sampling pattern and the roulette or null.
+         */
+        Long seed;
+        /**
+         * The maximum number of reflections.
+         */
+        int recursionDepth;
+        /**
+         * The throughput below which reflections end.
+         */
+        double reflectionThreshold;
+        /**
+         * True if weak reflections end at random without bias.
+         */
+        boolean russianRoulette;
+
+        /**
+         * This method creates the settings.
+         *
+         * @return The settings.
+         */
+        RenderSettings build() {
+            return new RenderSettings(debug, threaded, threads, linear, tileSize, fxImage, samples, minSamples,
+                    noiseThreshold, progressive, timeBudget, sampling, seed, recursionDepth, reflectionThreshold,
+                    russianRoulette);
+        }
+    }
+
+    /**
+     * This method returns the sampling pattern of the cameras. It is shared by all cameras using these settings.
+     *
+     * @return The sampling pattern.
+     */
+    public SamplingPattern getSamplingPattern() {
+        return samplingPattern;
+    }
+
+    /**
+     * This method creates a tracer for the reflections seen by one camera ray. Its random numbers only depend on the
+     * seed, the pixel and the sample, so renders are the same no matter how the threads are scheduled.
+     *
+     * @param x      The x-coordinate of the pixel.
+     * @param y      The y-coordinate of the pixel.
+     * @param sample The index of the sample in the pixel.
+     * @return The tracer.
+     */
+    public Tracer createTracer(final int x, final int y, final int sample) {
+        return new Tracer(recursionDepth, reflectionThreshold, russianRoulette,
+                CounterRandom.key(seed != null ? seed : 0, x, y, sample));
+    }
+
+    /**
+     * This method reads a boolean setting.
+     *
+     * @param properties   The properties.
+     * @param key          The key without the prefix.
+     * @param defaultValue The value if the key is not set.
+     * @return The value.
+     */
+    private static boolean bool(final Properties properties, final String key, final boolean defaultValue) {
+        final String value = properties.getProperty(PREFIX + key);
+        if (value == null) return defaultValue;
+        if (value.trim().equalsIgnoreCase("true")) return true;
+        if (value.trim().equalsIgnoreCase("false")) return false;
+        throw new IllegalArgumentException(PREFIX + key + " must be true or false.");
+    }
+
+    /**
+     * This method reads an integer setting.
+     *
+     * @param properties   The properties.
+     * @param key          The key without the prefix.
+     * @param defaultValue The value if the key is not set.
+     * @return The value.
+     */
+    private static int integer(final Properties properties, final String key, final int defaultValue) {
+        final String value = properties.getProperty(PREFIX + key);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(PREFIX + key + " must be an integer.", e);
+        }
+    }
+
+    /**
+     * This method reads the kind of sampling pattern.
+     *
+     * @param properties   The properties.
+     * @param defaultValue The value if the key is not set.
+     * @return The value.
+     */
+    private static Sampling sampling(final Properties properties, final Sampling defaultValue) {
+        final String value = properties.getProperty(PREFIX + "sampler");
+        if (value == null) return defaultValue;
+        for (Sampling sampling : Sampling.values()) {
+            if (sampling.key.equalsIgnoreCase(value.trim())) return sampling;
+        }
+        throw new IllegalArgumentException(PREFIX + "sampler must be sobol, halton, blueNoise or random.");
+    }
+
+    /**
+     * This method reads a long setting.
+     *
+     * @param properties   The properties.
+     * @param key          The key without the prefix.
+     * @param defaultValue The value if the key is not set.
+     * @return The value.
+     */
+    private static long longValue(final Properties properties, final String key, final long defaultValue) {
+        final String value = properties.getProperty(PREFIX + key);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(PREFIX + key + " must be an integer.", e);
+        }
+    }
+
+    /**
+     * This method reads a floating point setting.
+     *
+     * @param properties   The properties.
+     * @param key          The key without the prefix.
+     * @param defaultValue The value if the key is not set.
+     * @return The value.
+     */
+    private static double real(final Properties properties, final String key, final double defaultValue) {
+        final String value = properties.getProperty(PREFIX + key);
+        if (value == null) return defaultValue;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(PREFIX + key + " must be a number.", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RenderSettings{" +
+                "debug=" + debug +
+                ", threaded=" + threaded +
+                ", threads=" + threads +
+                ", linear=" + linear +
+                ", tileSize=" + tileSize +
+                ", fxImage=" + fxImage +
+                ", samples=" + samples +
+                ", minSamples=" + minSamples +
+                ", noiseThreshold=" + noiseThreshold +
+                ", progressive=" + progressive +
+                ", timeBudget=" + timeBudget +
+                ", sampling=" + sampling +
+                ", seed=" + seed +
+                ", recursionDepth=" + recursionDepth +
+                ", reflectionThreshold=" + reflectionThreshold +
+                ", russianRoulette=" + russianRoulette +
+                '}';
+    }
+}
@@ -0,0 +1,224 @@
+package raytracer.ui;
+
+import raytracer.camera.Camera;
+import raytracer.camera.RayBuffer;
+import raytracer.geometry.Hit;
+import raytracer.geometry.World;
+import raytracer.math.Ray;
+import raytracer.texture.Color;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class calculates the pixels of an image of a world seen by a camera and stores them as packed rgb values.
+ * It does not depend on a user interface, so it is shared by the FX application and the headless renderer.
+ *
+ * @author TrayRacer Team
+ */
+public class SceneRenderer implements TileRenderer.PixelRenderer {
+    /**
+     * The world to render.
+     */
+    public final World world;
+    /**
+     * The camera looking at the world.
+     */
+    public final Camera cam;
+    /**
+     * The width of the image.
+     */
+    public final int width;
+    /**
+     * The height of the image.
+     */
+    public final int height;
+    /**
+     * The packed rgb values of the image, row by row from the top.
+     */
+    public final int[] pixels;
+    /**
+     * The settings of the render job.
+     */
+    public final RenderSettings settings;
+    /**
+     * The number of camera rays traced so far.
+     */
+    private final LongAdder primaryRays = new LongAdder();
+    /**
+     * The buffer each render thread collects the camera rays of a pixel in.
+     */
+    private final ThreadLocal<RayBuffer> rays = ThreadLocal.withInitial(RayBuffer::new);
+
+    /**
+     * This constructor creates a renderer for an image of the given size with the default settings.
+     *
+     * @param world  The world to render.
+     * @param cam    The camera looking at the world.
+     * @param width  The width of the image. Must be larger than 0.
+     * @param height The height of the image. Must be larger than 0.
+     */
+    public SceneRenderer(final World world, final Camera cam, final int width, final int height) {
+        this(world, cam, width, height, RenderSettings.defaults());
+    }
+
+    /**
+     * This constructor creates a renderer for an image of the given size.
+     *
+     * @param world    The world to render.
+     * @param cam      The camera looking at the world.
+     * @param width    The width of the image. Must be larger than 0.
+     * @param height   The height of the image. Must be larger than 0.
+     * @param settings The settings of the render job, used for the reflections.
+     */
+    public SceneRenderer(final World world, final Camera cam, final int width, final int height, final RenderSettings settings) {
+        if (world == null || cam == null || settings == null) throw new IllegalArgumentException("Parameters must not be null.");
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Dimensions must be larger than 0.");
+        this.world = world;
+        this.cam = cam;
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+        this.settings = settings;
+    }
+
+    /**
+     * This method calculates the color of the given pixel as the average of the colors seen by its rays. With
+     * adaptive sampling, see adaptiveColorFor, noisy pixels get more samples than smooth ones.
+     *
+     * @param x The x-coordinate of the pixel, from the left.
+     * @param y The y-coordinate of the pixel, from the top.
+     * @return The color of the pixel.
+     */
+    public Color colorFor(final int x, final int y) {
+        final RayBuffer rays = this.rays.get();
+        if (settings.noiseThreshold > 0 && settings.minSamples < cam.pattern.numberOfPoints)
+            return adaptiveColorFor(x, y, rays);
+        double r = 0.0;
+        double g = 0.0;
+        double b = 0.0;
+        rays.clear();
+        cam.raysFor(width, height, x, (height - 1) - y, rays);
+        final int count = rays.size();
+        for (int i = 0; i < count; i++) {
+            Color color = trace(rays.getRay(i), x, y, i);
+            r += color.r;
+            g += color.g;
+            b += color.b;
+        }
+        primaryRays.add(count);
+        if (count == 0) return world.backgroundColor;
+        return new Color(r / count, g / count, b / count);
+    }
+
+    /**
+     * This method calculates the color of the given pixel from as few samples as its noise allows. Every pixel gets
+     * the minimum samples of the settings, then samples are added in batches of that size until the standard error
+     * of the mean color is below the noise threshold in every channel or all points of the pattern are used. The
+     * mean and variance are kept with Welford's method. The batches keep the points of stratified patterns in whole
+     * strata.
+     *
+     * @param x    The x-coordinate of the pixel, from the left.
+     * @param y    The y-coordinate of the pixel, from the top.
+     * @param rays The buffer of the rays.
+     * @return The color of the pixel.
+     */
+    private Color adaptiveColorFor(final int x, final int y, final RayBuffer rays) {
+        final int maxSamples = cam.pattern.numberOfPoints;
+        final double maxVariance = settings.noiseThreshold * settings.noiseThreshold;
+        double meanR = 0, meanG = 0, meanB = 0;
+        double m2R = 0, m2G = 0, m2B = 0;
+        int samples = 0;
+        int ray = 0;
+        while (samples < maxSamples) {
+            final int batch = Math.min(settings.minSamples, maxSamples - samples);
+            rays.clear();
+            cam.raysFor(width, height, x, (height - 1) - y, samples, batch, rays);
+            primaryRays.add(rays.size());
+            if (rays.size() == 0) return world.backgroundColor;
+            // a sample is the mean of its rays, e.g. of all points on the lens of a focus camera
+            final int raysPerSample = rays.size() / batch;
+            for (int i = 0; i < batch; i++) {
+                double r = 0.0;
+                double g = 0.0;
+                double b = 0.0;
+                for (int j = 0; j < raysPerSample; j++) {
+                    final Color color = trace(rays.getRay(i * raysPerSample + j), x, y, ray++);
+                    r += color.r;
+                    g += color.g;
+                    b += color.b;
+                }
+                samples++;
+                r /= raysPerSample;
+                g /= raysPerSample;
+                b /= raysPerSample;
+                final double dr = r - meanR, dg = g - meanG, db = b - meanB;
+                meanR += dr / samples;
+                meanG += dg / samples;
+                meanB += db / samples;
+                m2R += dr * (r - meanR);
+                m2G += dg * (g - meanG);
+                m2B += db * (b - meanB);
+            }
+            // the variance of the mean is the variance of the samples divided by their number, the first batch
+            // already has at least two samples, the settings reject fewer
+            final double variance = Math.max(m2R, Math.max(m2G, m2B)) / ((samples - 1) * (double) samples);
+            if (variance <= maxVariance) break;
+        }
+        return new Color(meanR, meanG, meanB);
+    }
+
+    /**
+     * This method traces the rays of one sample of the given pixel and adds the colors they see to a buffer. The
+     * sums of all samples give the same color as colorFor without adaptive sampling.
+     *
+     * @param x      The x-coordinate of the pixel, from the left.
+     * @param y      The y-coordinate of the pixel, from the top.
+     * @param sample The index of the sample. Must not be negative.
+     * @param sums   The buffer the red, green and blue sums are added to.
+     * @param offset The index of the red sum in the buffer.
+     * @return The number of rays traced.
+     */
+    public int addSample(final int x, final int y, final int sample, final double[] sums, final int offset) {
+        final RayBuffer rays = this.rays.get();
+        rays.clear();
+        cam.raysFor(width, height, x, (height - 1) - y, sample, 1, rays);
+        final int count = rays.size();
+        for (int i = 0; i < count; i++) {
+            final Color color = trace(rays.getRay(i), x, y, sample * count + i);
+            sums[offset] += color.r;
+            sums[offset + 1] += color.g;
+            sums[offset + 2] += color.b;
+        }
+        primaryRays.add(count);
+        return count;
+    }
+
+    /**
+     * This method returns the color seen by a camera ray.
+     *
+     * @param ray   The ray.
+     * @param x     The x-coordinate of the pixel, from the left.
+     * @param y     The y-coordinate of the pixel, from the top.
+     * @param index The index of the ray in the pixel, it chooses the random numbers of the reflections.
+     * @return The color.
+     */
+    private Color trace(final Ray ray, final int x, final int y, final int index) {
+        final Hit hit = world.hit(ray);
+        return hit != null ? hit.material.colorFor(hit, world, settings.createTracer(x, y, index)) : world.backgroundColor;
+    }
+
+    /**
+     * This method returns the number of camera rays traced so far. All other rays tested against the world are
+     * secondary rays, e.g. reflections.
+     *
+     * @return The number of camera rays.
+     */
+    public long getPrimaryRayCount() {
+        return primaryRays.sum();
+    }
+
+    @Override
+    public void renderPixel(final int x, final int y) {
+        pixels[y * width + x] = colorFor(x, y).getRGB();
+    }
+}
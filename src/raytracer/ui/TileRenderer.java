@@ -0,0 +1,225 @@
+package raytracer.ui;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class schedules the pixels of an image in square tiles on a work-stealing ForkJoinPool.
+ * The tiles are split recursively, so idle threads steal whole ranges of tiles from busy ones. The pixels of a tile
+ * are rendered row by row by the same thread, which keeps neighbouring rays together.
+ *
+ * @author TrayRacer Team
+ */
+public class TileRenderer {
+    /**
+     * This interface is implemented by the owner of the image to render a single pixel.
+     */
+    public interface PixelRenderer {
+        /**
+         * This method renders the pixel at the given coordinates.
+         *
+         * @param x The x-coordinate of the pixel.
+         * @param y The y-coordinate of the pixel.
+         */
+        void renderPixel(final int x, final int y);
+    }
+
+    /**
+     * The width of the image.
+     */
+    public final int width;
+    /**
+     * The height of the image.
+     */
+    public final int height;
+    /**
+     * The edge length of a tile in pixels.
+     */
+    public final int tileSize;
+    /**
+     * The number of tiles in a row.
+     */
+    private final int tilesX;
+    /**
+     * The order in which the tiles are rendered.
+     */
+    private final int[] tileOrder;
+    /**
+     * The renderer for the pixels.
+     */
+    private final PixelRenderer renderer;
+    /**
+     * The pool running the tiles.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * The number of pixels already rendered.
+     */
+    private final AtomicInteger pixelsDone = new AtomicInteger();
+    /**
+     * Set when the rendering is stopped, checked before every row of a tile.
+     */
+    private volatile boolean cancelled;
+    /**
+     * The task rendering all tiles, null until started.
+     */
+    private volatile ForkJoinTask<?> task;
+
+    /**
+     * This constructor creates a scheduler for an image of the given size.
+     *
+     * @param width    The width of the image. Must be larger than 0.
+     * @param height   The height of the image. Must be larger than 0.
+     * @param tileSize The edge length of a tile in pixels. Must be larger than 0.
+     * @param threads  The number of render threads. Must be larger than 0.
+     * @param linear   True to render the tiles row by row, false to render them in random order.
+     * @param renderer The renderer for the pixels.
+     */
+    public TileRenderer(final int width, final int height, final int tileSize, final int threads, final boolean linear,
+                        final PixelRenderer renderer) {
+        if (renderer == null) throw new IllegalArgumentException("Renderer must not be null.");
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Dimensions must be larger than 0.");
+        if (tileSize <= 0) throw new IllegalArgumentException("Tile size must be larger than 0.");
+        if (threads <= 0) throw new IllegalArgumentException("Threads must be larger than 0.");
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        this.renderer = renderer;
+        this.tilesX = (width + tileSize - 1) / tileSize;
+        final int tilesY = (height + tileSize - 1) / tileSize;
+
+        tileOrder = new int[tilesX * tilesY];
+        for (int i = 0; i < tileOrder.length; i++) {
+            tileOrder[i] = i;
+        }
+        if (!linear) {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = tileOrder.length - 1; i > 0; i--) {
+                final int j = random.nextInt(i + 1);
+                final int tmp = tileOrder[i];
+                tileOrder[i] = tileOrder[j];
+                tileOrder[j] = tmp;
+            }
+        }
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * This method starts rendering all tiles in the background and returns immediately.
+     */
+    public void start() {
+        if (task != null) throw new IllegalStateException("Rendering has already been started.");
+        task = pool.submit(new Tiles(0, tileOrder.length));
+        pool.shutdown();
+    }
+
+    /**
+     * This method renders all tiles and returns when the image is finished or the rendering is cancelled.
+     */
+    public void render() {
+        start();
+        try {
+            task.join();
+        } catch (RuntimeException e) {
+            if (!cancelled) throw e;
+        }
+    }
+
+    /**
+     * This method stops the rendering. Tiles in progress stop after their current row.
+     */
+    public void cancel() {
+        cancelled = true;
+        pool.shutdownNow();
+    }
+
+    /**
+     * This method checks if the rendering is finished or cancelled.
+     *
+     * @return True if no more pixels are rendered.
+     */
+    public boolean isDone() {
+        final ForkJoinTask<?> t = task;
+        return t != null && t.isDone();
+    }
+
+    /**
+     * This method returns the number of pixels already rendered.
+     *
+     * @return The number of pixels already rendered.
+     */
+    public int getPixelsDone() {
+        return pixelsDone.get();
+    }
+
+    /**
+     * This method returns the number of pixels of the image.
+     *
+     * @return The number of pixels of the image.
+     */
+    public int getPixelsTotal() {
+        return width * height;
+    }
+
+    /**
+     * This method renders the pixels of a single tile row by row.
+     *
+     * @param tile The index of the tile.
+     */
+    private void renderTile(final int tile) {
+        final int x0 = (tile % tilesX) * tileSize;
+        final int y0 = (tile / tilesX) * tileSize;
+        final int x1 = Math.min(x0 + tileSize, width);
+        final int y1 = Math.min(y0 + tileSize, height);
+        for (int y = y0; y < y1; y++) {
+            if (cancelled) return;
+            for (int x = x0; x < x1; x++) {
+                renderer.renderPixel(x, y);
+            }
+            pixelsDone.addAndGet(x1 - x0);
+        }
+    }
+
+    /**
+     * This class renders a range of the tile order and splits it in halves for other threads to steal.
+     */
+    private class Tiles extends RecursiveAction {
+        /**
+         * The version of the serialized form, the tasks are never serialized.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * The first position in the tile order.
+         */
+        private final int from;
+        /**
+         * The position after the last in the tile order.
+         */
+        private final int to;
+
+        /**
+         * This constructor creates a task for the given range of the tile order.
+         *
+         * @param from The first position in the tile order.
+         * @param to   The position after the last in the tile order.
+         */
+        Tiles(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) return;
+            if (to - from == 1) {
+                renderTile(tileOrder[from]);
+            } else if (to - from > 1) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Tiles(from, middle), new Tiles(middle, to));
+            }
+        }
+    }
+}